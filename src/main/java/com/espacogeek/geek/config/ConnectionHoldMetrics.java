@@ -0,0 +1,122 @@
+package com.espacogeek.geek.config;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Measures how long the JDBC connections are held, so slow work done while holding one shows up before it
+ * exhausts the pool:
+ * <ul>
+ * <li><code>db.connection.hold</code>: each checkout, tagged <code>scope=request</code> when taken by an HTTP
+ * request thread and <code>scope=background</code> otherwise.</li>
+ * <li><code>http.request.connection.hold</code>: the total of the checkouts of each HTTP request.</li>
+ * </ul>
+ * The connections taken by a request on another thread are only counted in <code>db.connection.hold</code>.
+ */
+@Configuration
+public class ConnectionHoldMetrics {
+    private static final ThreadLocal<AtomicLong> REQUEST_HOLD = new ThreadLocal<>();
+
+    @Bean
+    public static BeanPostProcessor connectionHoldDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof HoldTrackingDataSource)) {
+                    return new HoldTrackingDataSource(dataSource, meterRegistry);
+                }
+
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public OncePerRequestFilter connectionHoldFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+                var held = new AtomicLong();
+                REQUEST_HOLD.set(held);
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    REQUEST_HOLD.remove();
+                    meterRegistry.ifAvailable((registry) -> Timer.builder("http.request.connection.hold")
+                            .description("Time the JDBC connections were held by an HTTP request")
+                            .register(registry)
+                            .record(held.get(), TimeUnit.NANOSECONDS));
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps the connections so their close, which returns them to the pool, records how long they were held.
+     */
+    private static final class HoldTrackingDataSource extends DelegatingDataSource {
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        private HoldTrackingDataSource(DataSource dataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+            super(dataSource);
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return track(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return track(super.getConnection(username, password));
+        }
+
+        private Connection track(Connection connection) {
+            var requestHold = REQUEST_HOLD.get();
+            var scope = requestHold == null ? "background" : "request";
+            var start = System.nanoTime();
+            var closed = new AtomicBoolean();
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                    var held = System.nanoTime() - start;
+                    if (requestHold != null) requestHold.addAndGet(held);
+                    meterRegistry.ifAvailable((registry) -> Timer.builder("db.connection.hold")
+                            .description("Time a JDBC connection was held before returning to the pool")
+                            .tag("scope", scope)
+                            .register(registry)
+                            .record(held, TimeUnit.NANOSECONDS));
+                }
+
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.espacogeek.geek.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the <code>@Scheduled</code> jobs (imports, syncs, index and suggestion flushes) unless
+ * <code>scheduling.enabled=false</code>, like in the tests.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,51 @@
+package com.espacogeek.geek.controllers;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.stereotype.Controller;
+
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SeasonModel;
+import com.espacogeek.geek.services.MediaAssociationService;
+
+/**
+ * Resolves the associations of <code>Media</code> with a DataLoader, so the associations of every media of
+ * a response are loaded with one query each instead of one per media.
+ */
+@Controller
+public class MediaAssociationController {
+    @Autowired
+    private MediaAssociationService mediaAssociationService;
+
+    @BatchMapping(typeName = "Media", field = "mediaCategory")
+    public Map<MediaModel, MediaCategoryModel> mediaCategory(List<MediaModel> medias) {
+        return mediaAssociationService.findCategories(medias);
+    }
+
+    @BatchMapping(typeName = "Media", field = "genre")
+    public Map<MediaModel, List<GenreModel>> genre(List<MediaModel> medias) {
+        return mediaAssociationService.findGenres(medias);
+    }
+
+    @BatchMapping(typeName = "Media", field = "alternativeTitles")
+    public Map<MediaModel, List<AlternativeTitleModel>> alternativeTitles(List<MediaModel> medias) {
+        return mediaAssociationService.findAlternativeTitles(medias);
+    }
+
+    @BatchMapping(typeName = "Media", field = "externalReference")
+    public Map<MediaModel, List<ExternalReferenceModel>> externalReference(List<MediaModel> medias) {
+        return mediaAssociationService.findExternalReferences(medias);
+    }
+
+    @BatchMapping(typeName = "Media", field = "season")
+    public Map<MediaModel, List<SeasonModel>> season(List<MediaModel> medias) {
+        return mediaAssociationService.findSeasons(medias);
+    }
+}
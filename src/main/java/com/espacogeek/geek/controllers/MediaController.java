@@ -1,21 +1,37 @@
 package com.espacogeek.geek.controllers;
 
-import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.ContextValue;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
 import com.espacogeek.geek.data.MediaDataController;
-import com.espacogeek.geek.data.api.MediaApi;
+import com.espacogeek.geek.data.MediaTranslationController;
+import com.espacogeek.geek.data.MediaTranslationController.Translations;
 import com.espacogeek.geek.data.api.QuoteApi;
 import com.espacogeek.geek.models.MediaModel;
-import com.espacogeek.geek.services.MediaCategoryService;
+import com.espacogeek.geek.models.SeasonModel;
+import com.espacogeek.geek.repositories.MediaRepositoryCustom.Keyset;
+import com.espacogeek.geek.services.FederatedSearchService;
+import com.espacogeek.geek.services.MediaFacetService;
+import com.espacogeek.geek.services.MediaRefreshService;
 import com.espacogeek.geek.services.MediaService;
-import com.espacogeek.geek.services.TypeReferenceService;
+import com.espacogeek.geek.services.MediaSuggestService;
+import com.espacogeek.geek.types.MediaFilter;
 import com.espacogeek.geek.types.MediaPage;
+import com.espacogeek.geek.types.PageInfo;
 import com.espacogeek.geek.types.QuoteArtwork;
+import com.espacogeek.geek.types.SearchGroup;
+import com.espacogeek.geek.types.Suggestion;
 import com.espacogeek.geek.utils.Utils;
 import com.espacogeek.geek.exception.GenericException;
 
@@ -26,17 +42,24 @@ public class MediaController {
     @Autowired
     private MediaService mediaService;
     @Autowired
-    private MediaDataController serieController;
+    private MediaRefreshService mediaRefreshService;
     @Autowired
-    private MediaDataController genericMediaDataController;
+    private QuoteApi quoteApi;
     @Autowired
-    private MediaApi gamesAndVNsAPI;
+    private MediaTranslationController mediaTranslationController;
     @Autowired
-    private TypeReferenceService typeReferenceService;
+    private MediaSuggestService mediaSuggestService;
     @Autowired
-    private MediaCategoryService mediaCategoryService;
+    private FederatedSearchService federatedSearchService;
     @Autowired
-    private QuoteApi quoteApi;
+    private MediaFacetService mediaFacetService;
+
+    private static final int MAX_IDS = 100;
+    private static final String CONTENT = "content"; // field of MediaPage holding the medias
+    private static final String FACETS = "facets"; // field of MediaPage holding the facet counts
+    private static final List<Integer> ALL_CATEGORIES = List.of(MediaDataController.SERIE_ID, MediaDataController.GAME_ID, MediaDataController.VN_ID, MediaDataController.MOVIE_ID);
+    private static final List<String> TRANSLATED_ASSOCIATIONS = List.of("externalReference", "season"); // read by the translation
+    private static final Pattern LOCALE_PATTERN = Pattern.compile("^[a-z]{2,3}(-[A-Z]{2})?$");
 
     @QueryMapping(name = "quote")
     public QuoteArtwork getQuoteAndRandomArtwork() {
@@ -47,42 +70,141 @@ public class MediaController {
         return new QuoteArtwork(quote.getQuote(), quote.getAuthor(), "artwork");
     }
 
+    /**
+     * Suggests medias whose name or alternative title starts with the prefix, for type-ahead. Served from
+     * memory, the database is not read.
+     *
+     * @param prefix   The text typed so far.
+     * @param category The ID of the media category, or <code>null</code> for all categories.
+     * @param limit    The max number of suggestions, 10 by default.
+     * @return A list of Suggestion objects, the most popular first.
+     */
+    @QueryMapping(name = "suggest")
+    public List<Suggestion> suggest(@Argument String prefix, @Argument Integer category, @Argument Integer limit) {
+        return mediaSuggestService.suggest(prefix, category, limit == null ? 10 : limit);
+    }
+
+    /**
+     * Searches medias by name or alternative title in several categories with one request, instead of one
+     * <code>tvserie</code>, <code>game</code> and <code>vn</code> query each. The providers of the categories
+     * are searched concurrently, see {@link FederatedSearchService}.
+     *
+     * @param query      The name searched.
+     * @param categories The IDs of the media categories, all of them when not provided.
+     * @param limit      The max number of medias per category, 10 by default.
+     * @return A list of SearchGroup objects, one per category in the order requested.
+     */
+    @QueryMapping(name = "search")
+    public List<SearchGroup> search(@Argument String query, @Argument List<Integer> categories, @Argument Integer limit, DataFetchingEnvironment dataFetchingEnvironment) {
+        var name = query == null ? "" : query.trim();
+        var searched = categories == null || categories.isEmpty() ? ALL_CATEGORIES : categories.stream().distinct().toList();
+        if (name.isEmpty()) return searched.stream().map((category) -> new SearchGroup(category, List.of(), false)).toList();
+
+        return federatedSearchService.search(name, searched,
+                () -> this.mediaService.searchByCategories(name, searched, limit, Utils.getRequestedFields(dataFetchingEnvironment, CONTENT)));
+    }
+
     /**
      * Finds a MediaModel object by its ID.
+     * <p>
+     * When a locale is provided, the name and about of the media and its seasons are returned in that
+     * locale, falling back to the default ones when the provider has no translation.
      *
      * @param id The ID of the MediaModel object to find.
+     * @param locale The locale of the localized fields, like <code>pt-BR</code>.
      * @return The MediaModel object that matches the provided ID.
-     * @throws GenericException if the MediaModel object is not found.
+     * @throws GenericException if the MediaModel object is not found or the locale is invalid.
      */
     @QueryMapping(name = "media")
-    public MediaModel getMediaById(@Argument Integer id) {
-        var media = this.mediaService.findByIdEager(id).orElseThrow(() -> new GenericException("Media not found"));
-
-        switch (media.getMediaCategory().getId()) {
-            case MediaDataController.GAME_ID:
-            case MediaDataController.VN_ID:
-                return Utils
-                        .updateGenericMedia(Arrays.asList(media), genericMediaDataController,
-                                typeReferenceService.findById(MediaDataController.IGDB_ID).get(), gamesAndVNsAPI)
-                        .getFirst();
-
-            case MediaDataController.SERIE_ID:
-                return Utils.updateMedia(Arrays.asList(media), serieController).getFirst();
+    public MediaModel getMediaById(@Argument Integer id, @Argument String locale, DataFetchingEnvironment dataFetchingEnvironment) {
+        if (locale != null && !LOCALE_PATTERN.matcher(locale).matches()) {
+            throw new GenericException("Invalid locale");
+        }
+
+        var associations = new HashSet<>(Utils.getRequestedFields(dataFetchingEnvironment).keySet());
+        if (locale != null) associations.addAll(TRANSLATED_ASSOCIATIONS);
+        var media = this.mediaService.findByIdEager(id, associations).orElseThrow(() -> new GenericException("Media not found"));
+
+        // the refresh reads every association, and runs after the transaction of the read
+        if (Utils.updateMediaWhenLastTimeUpdateMoreThanOneDay(media)) {
+            media = this.mediaService.findByIdEager(id).orElse(media);
+        }
+
+        media = mediaRefreshService.refresh(media);
+
+        if (locale != null) {
+            dataFetchingEnvironment.getGraphQlContext().put(MediaTranslationController.TRANSLATIONS_CONTEXT,
+                    mediaTranslationController.translate(List.of(media), locale));
         }
 
         return media;
     }
 
+    /**
+     * Finds the medias of the IDs, for lists like a library or recommendations, with one query for the
+     * medias and one per association selected, see {@link MediaAssociationController}.
+     * <p>
+     * Outdated medias are returned as they are and refreshed in background, so the list doesn't wait for
+     * the providers and the next read gets the updated data.
+     *
+     * @param ids The IDs of the medias, at most {@value #MAX_IDS}.
+     * @return The medias in the order of the IDs, <code>null</code> for the IDs not found.
+     * @throws GenericException if too many IDs are provided.
+     */
+    @QueryMapping(name = "medias")
+    public List<MediaModel> getMediasByIds(@Argument List<Integer> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new GenericException("Too many IDs, the limit is " + MAX_IDS);
+        }
+
+        var medias = this.mediaService.findAllById(ids);
+        mediaRefreshService.refreshInBackground(medias.stream()
+                .filter((media) -> media != null && Utils.updateMediaWhenLastTimeUpdateMoreThanOneDay(media))
+                .map(MediaModel::getId)
+                .toList());
+
+        return medias;
+    }
+
+    @SchemaMapping(typeName = "Media", field = "name")
+    public String getMediaName(MediaModel media, @ContextValue(name = MediaTranslationController.TRANSLATIONS_CONTEXT, required = false) Translations translations) {
+        var translation = translations == null ? null : translations.medias().get(media.getId());
+        return translation == null || translation.getName() == null ? media.getName() : translation.getName();
+    }
+
+    @SchemaMapping(typeName = "Media", field = "about")
+    public String getMediaAbout(MediaModel media, @ContextValue(name = MediaTranslationController.TRANSLATIONS_CONTEXT, required = false) Translations translations) {
+        var translation = translations == null ? null : translations.medias().get(media.getId());
+        return translation == null || translation.getAbout() == null ? media.getAbout() : translation.getAbout();
+    }
+
+    @SchemaMapping(typeName = "Season", field = "name")
+    public String getSeasonName(SeasonModel season, @ContextValue(name = MediaTranslationController.TRANSLATIONS_CONTEXT, required = false) Translations translations) {
+        var translation = translations == null ? null : translations.seasons().get(season.getId());
+        return translation == null || translation.getName() == null ? season.getName() : translation.getName();
+    }
+
+    @SchemaMapping(typeName = "Season", field = "about")
+    public String getSeasonAbout(SeasonModel season, @ContextValue(name = MediaTranslationController.TRANSLATIONS_CONTEXT, required = false) Translations translations) {
+        var translation = translations == null ? null : translations.seasons().get(season.getId());
+        return translation == null || translation.getAbout() == null ? season.getAbout() : translation.getAbout();
+    }
+
     /**
      * Finds Series (MediaModel) objects by their ID or name.
      *
-     * @param id   The ID of the Series (MediaModel) object to find.
-     * @param name The name of the Series (MediaModel) object to find.
+     * The first page is searched on TMDB too, see {@link FederatedSearchService}. When <code>first</code> or
+     * <code>after</code> is provided the page is read with a cursor, see {@link #toMediaPage(Keyset)}.
+     *
+     * @param id    The ID of the Series (MediaModel) object to find.
+     * @param name  The name of the Series (MediaModel) object to find.
+     * @param first The size of the page read with a cursor.
+     * @param after The cursor returned by the previous page.
      * @return A list of Series (MediaModel) objects that match the provided ID or
      *         name.
      */
     @QueryMapping(name = "tvserie")
-    public MediaPage getSerie(@Argument Integer id, @Argument String name, DataFetchingEnvironment dataFetchingEnvironment) {
+    public MediaPage getSerie(@Argument Integer id, @Argument String name, @Argument Integer first, @Argument String after, DataFetchingEnvironment dataFetchingEnvironment) {
         MediaPage response = new MediaPage();
         name = name == null ? null : name.trim();
 
@@ -90,27 +212,33 @@ public class MediaController {
             return response;
         }
 
-        // var medias = this.mediaService.findSerieByIdOrName(id, name, Utils.getRequestedFields(dataFetchingEnvironment), Utils.getPageable(dataFetchingEnvironment));
-        var medias = this.mediaService.findSerieByIdOrName(id, name, Utils.getPageable(dataFetchingEnvironment));
-        response.setTotalPages(medias.getTotalPages());
-        response.setTotalElements(medias.getTotalElements());
-        response.setNumber(medias.getNumber());
-        response.setSize(medias.getSize());
-        response.setContent(medias.getContent());
+        if (id == null && (first != null || after != null)) {
+            return searchWithCursor(name, MediaDataController.SERIE_ID, first, after, dataFetchingEnvironment);
+        }
 
-        return response;
+        var pageable = Utils.getPageable(dataFetchingEnvironment);
+        var searchedName = name;
+        Supplier<Slice<MediaModel>> search = () -> this.mediaService.findSerieByIdOrName(id, searchedName, Utils.getRequestedFields(dataFetchingEnvironment, CONTENT), pageable, Utils.isTotalRequested(dataFetchingEnvironment));
+
+        return toMediaPage(id == null && pageable.getPageNumber() == 0 ? federatedSearchService.search(name, MediaDataController.SERIE_ID, search) : search.get());
     }
 
     /**
      * Finds Game (MediaModel) objects by their ID or name. When searching by ID, the name parameter is not used amd all fields are updated.
      *
-     * @param id   The ID of the Game (MediaModel) object to find.
-     * @param name The name of the Game (MediaModel) object to find.
+     * The first page is searched on IGDB too, see {@link FederatedSearchService}, and the page is read from
+     * database with only the fields selected by the client. When <code>first</code> or <code>after</code>
+     * is provided the page is read with a cursor.
+     *
+     * @param id    The ID of the Game (MediaModel) object to find.
+     * @param name  The name of the Game (MediaModel) object to find.
+     * @param first The size of the page read with a cursor.
+     * @param after The cursor returned by the previous page.
      * @return A list of Game (MediaModel) objects that match the provided ID or
      *         name.
      */
     @QueryMapping(name = "game")
-    public MediaPage getGame(@Argument Integer id, @Argument String name, DataFetchingEnvironment dataFetchingEnvironment) {
+    public MediaPage getGame(@Argument Integer id, @Argument String name, @Argument Integer first, @Argument String after, DataFetchingEnvironment dataFetchingEnvironment) {
         MediaPage response = new MediaPage();
         name = name == null ? null : name.trim();
 
@@ -118,27 +246,33 @@ public class MediaController {
             return response;
         }
 
-        var medias = genericMediaDataController.searchMedia(name, gamesAndVNsAPI, typeReferenceService.findById(MediaDataController.IGDB_ID).orElseThrow(), mediaCategoryService.findById(MediaDataController.GAME_ID).orElseThrow());
+        if (id == null && (first != null || after != null)) {
+            return searchWithCursor(name, MediaDataController.GAME_ID, first, after, dataFetchingEnvironment);
+        }
 
-        response.setTotalPages(1);
-        response.setTotalElements(medias.size());
-        response.setNumber(1);
-        response.setSize(medias.size());
-        response.setContent(medias);
+        var pageable = Utils.getPageable(dataFetchingEnvironment);
+        var searchedName = name;
+        Supplier<Slice<MediaModel>> search = () -> this.mediaService.findGameByIdOrName(id, searchedName, Utils.getRequestedFields(dataFetchingEnvironment, CONTENT), pageable, Utils.isTotalRequested(dataFetchingEnvironment));
 
-        return response;
+        return toMediaPage(id == null && pageable.getPageNumber() == 0 ? federatedSearchService.search(name, MediaDataController.GAME_ID, search) : search.get());
     }
 
     /**
      * Finds Visual Novel (MediaModel) objects by their ID or name.
      *
-     * @param id   The ID of the Visual Novel (MediaModel) object to find.
-     * @param name The name of the Visual Novel (MediaModel) object to find.
+     * The first page is searched on IGDB too, see {@link FederatedSearchService}, and the page is read from
+     * database with only the fields selected by the client. When <code>first</code> or <code>after</code>
+     * is provided the page is read with a cursor.
+     *
+     * @param id    The ID of the Visual Novel (MediaModel) object to find.
+     * @param name  The name of the Visual Novel (MediaModel) object to find.
+     * @param first The size of the page read with a cursor.
+     * @param after The cursor returned by the previous page.
      * @return A list of Visual Novel (MediaModel) objects that match the provided
      *         ID or name.
      */
     @QueryMapping(name = "vn")
-    public MediaPage getVisualNovel(@Argument Integer id, @Argument String name, DataFetchingEnvironment dataFetchingEnvironment) {
+    public MediaPage getVisualNovel(@Argument Integer id, @Argument String name, @Argument Integer first, @Argument String after, DataFetchingEnvironment dataFetchingEnvironment) {
         MediaPage response = new MediaPage();
         name = name == null ? null : name.trim();
 
@@ -146,14 +280,109 @@ public class MediaController {
             return response;
         }
 
-        var medias = genericMediaDataController.searchMedia(name, gamesAndVNsAPI, typeReferenceService.findById(MediaDataController.IGDB_ID).orElseThrow(), mediaCategoryService.findById(MediaDataController.VN_ID).orElseThrow());
+        if (id == null && (first != null || after != null)) {
+            return searchWithCursor(name, MediaDataController.VN_ID, first, after, dataFetchingEnvironment);
+        }
+
+        var pageable = Utils.getPageable(dataFetchingEnvironment);
+        var searchedName = name;
+        Supplier<Slice<MediaModel>> search = () -> this.mediaService.findVisualNovelByIdOrName(id, searchedName, Utils.getRequestedFields(dataFetchingEnvironment, CONTENT), pageable, Utils.isTotalRequested(dataFetchingEnvironment));
 
-        response.setContent(medias);
-        response.setTotalPages(1);
-        response.setTotalElements(medias.size());
-        response.setNumber(1);
-        response.setSize(medias.size());
-        response.setContent(medias);
+        return toMediaPage(id == null && pageable.getPageNumber() == 0 ? federatedSearchService.search(name, MediaDataController.VN_ID, search) : search.get());
+    }
+
+    /**
+     * Finds Movie (MediaModel) objects by their ID or name.
+     *
+     * @param id   The ID of the Movie (MediaModel) object to find.
+     * @param name The name of the Movie (MediaModel) object to find.
+     * @return A list of Movie (MediaModel) objects that match the provided ID or
+     *         name.
+     */
+    @QueryMapping(name = "movie")
+    public MediaPage getMovie(@Argument Integer id, @Argument String name, DataFetchingEnvironment dataFetchingEnvironment) {
+        MediaPage response = new MediaPage();
+        name = name == null ? null : name.trim();
+
+        if (name == null & id == null || name == "" & id == null) {
+            return response;
+        }
+
+        var medias = this.mediaService.findMovieByIdOrName(id, name, Utils.getRequestedFields(dataFetchingEnvironment, CONTENT), Utils.getPageable(dataFetchingEnvironment), Utils.isTotalRequested(dataFetchingEnvironment));
+
+        return toMediaPage(medias);
+    }
+
+    /**
+     * Browses the medias of a category ordered by name, with cursor pagination.
+     * <p>
+     * With <code>filters</code> the medias matching the categories, genres and years are browsed in ID order
+     * instead, and the counts of each facet value are filled when the client selected <code>facets</code>.
+     * The cursors of both orders are not interchangeable.
+     *
+     * @param category The ID of the media category, or <code>null</code> for all categories.
+     * @param first    The size of the page, 10 by default.
+     * @param after    The cursor returned by the previous page.
+     * @param filters  The values of each facet, see {@link MediaFacetService}.
+     * @return A page of MediaModel objects with the cursor of the next page.
+     */
+    @QueryMapping(name = "browse")
+    public MediaPage browse(@Argument Integer category, @Argument Integer first, @Argument String after, @Argument MediaFilter filters, DataFetchingEnvironment dataFetchingEnvironment) {
+        if (filters == null) {
+            return toMediaPage(this.mediaService.findByNameAfter(null, category, after, first, Utils.getRequestedFields(dataFetchingEnvironment, CONTENT)));
+        }
+
+        if (category != null && (filters.getCategory() == null || filters.getCategory().isEmpty())) {
+            filters.setCategory(List.of(category));
+        }
+
+        var response = toMediaPage(this.mediaService.findByFilterAfter(filters, after, first, Utils.getRequestedFields(dataFetchingEnvironment, CONTENT)));
+        if (dataFetchingEnvironment.getSelectionSet().contains(FACETS)) {
+            response.setFacets(mediaFacetService.count(filters));
+        }
+
+        return response;
+    }
+
+    /**
+     * Reads the page from database with a cursor, searching the provider of the category too on the first
+     * page.
+     */
+    private MediaPage searchWithCursor(String name, Integer category, Integer first, String after, DataFetchingEnvironment dataFetchingEnvironment) {
+        Supplier<Keyset> search = () -> this.mediaService.findByNameAfter(name, category, after, first, Utils.getRequestedFields(dataFetchingEnvironment, CONTENT));
+
+        return toMediaPage(after == null ? federatedSearchService.search(name, category, search) : search.get());
+    }
+
+    /**
+     * Page read with page and size. The totals are only filled when the client selected them, otherwise the
+     * matches are not counted and <code>pageInfo.hasNextPage</code> tells whether there is a next page.
+     */
+    private MediaPage toMediaPage(Slice<MediaModel> medias) {
+        MediaPage response = new MediaPage();
+        response.setNumber(medias.getNumber());
+        response.setSize(medias.getSize());
+        response.setContent(medias.getContent());
+        response.setPageInfo(new PageInfo(medias.hasNext(), null));
+
+        if (medias instanceof Page<MediaModel> page) {
+            response.setTotalPages(page.getTotalPages());
+            response.setTotalElements(page.getTotalElements());
+            response.setTotalEstimated(page.getTotalElements() > MediaService.MAX_EXACT_COUNT);
+        }
+
+        return response;
+    }
+
+    /**
+     * Page read with a cursor. Counting the matches would cost as much as skipping the previous pages, so
+     * <code>totalPages</code> and <code>totalElements</code> are not filled, use <code>pageInfo</code>.
+     */
+    private MediaPage toMediaPage(Keyset keyset) {
+        MediaPage response = new MediaPage();
+        response.setContent(keyset.content());
+        response.setSize(keyset.content().size());
+        response.setPageInfo(new PageInfo(keyset.hasNext(), keyset.endCursor() == null ? null : keyset.endCursor().encode()));
 
         return response;
     }
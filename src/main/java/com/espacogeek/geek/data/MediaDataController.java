@@ -67,6 +67,20 @@ public interface MediaDataController {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Saves the medias returned by <code>MediaApi#doSearch</code>, the ones already in database by external
+     * reference are returned as they are.
+     *
+     * @param results the medias found by the provider, each with its external reference.
+     * @param mediaApi implementation of MediaAPI that found them.
+     * @param typeReference reference source of the results.
+     * @param mediaCategory category of the results.
+     * @return the saved medias.
+     */
+    default public List<MediaModel> importSearchResults(List<MediaModel> results, MediaApi mediaApi, TypeReferenceModel typeReference, MediaCategoryModel mediaCategory) {
+        throw new UnsupportedOperationException();
+    }
+
     default public MediaModel updateBasicAttributes(MediaModel media, MediaModel result, TypeReferenceModel typeReference, MediaApi mediaApi) {
         throw new UnsupportedOperationException();
     }
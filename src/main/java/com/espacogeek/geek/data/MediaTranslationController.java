@@ -0,0 +1,38 @@
+package com.espacogeek.geek.data;
+
+import java.util.List;
+import java.util.Map;
+
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.MediaTranslationModel;
+import com.espacogeek.geek.models.SeasonTranslationModel;
+
+public interface MediaTranslationController {
+    // Key of the translations of the request in the GraphQL context
+    public static final String TRANSLATIONS_CONTEXT = "translations";
+
+    /**
+     * Translations of a set of medias and their seasons to one locale.
+     *
+     * @param locale  locale of the translations.
+     * @param medias  translations by media ID.
+     * @param seasons translations by season ID.
+     */
+    public record Translations(String locale, Map<Integer, MediaTranslationModel> medias, Map<Integer, SeasonTranslationModel> seasons) {
+    }
+
+    /**
+     * This method return the translations of the medias to the locale.
+     * <p>
+     * The translations are read from database, the ones missing or outdated are fetched from the provider
+     * of each media concurrently and saved, so the next requests to the same locale don't call the provider.
+     * Medias whose provider doesn't localize its information are absent.
+     * <p>
+     * @param medias this <code>MediaModel</code> objects have to have <code>mediaCategory</code>,
+     * <code>externalReference</code> and <code>season</code> loaded.
+     * @param locale locale of the translations, like <code>pt-BR</code>.
+     * <p>
+     * @return the translations of the medias and their seasons.
+     */
+    public Translations translate(List<MediaModel> medias, String locale);
+}
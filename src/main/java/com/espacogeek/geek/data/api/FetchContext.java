@@ -0,0 +1,71 @@
+package com.espacogeek.geek.data.api;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-refresh memo for provider responses.
+ * <p>
+ * A single refresh can ask a <code>MediaApi</code> for several projections of the same media
+ * (details, genres, seasons, artworks...). While a context is open on the current thread, the
+ * first response fetched for a key is kept and every later projection is served from it, so the
+ * provider is called once per refresh instead of once per projection.
+ * <p>
+ * Outside of {@link #run(Supplier)} nothing is memoized.
+ */
+public final class FetchContext {
+    private static final ThreadLocal<Map<Object, Object>> CONTEXT = new ThreadLocal<>();
+
+    private FetchContext() {
+    }
+
+    /**
+     * Runs the given action inside a fetch context. Nested calls reuse the outer context.
+     *
+     * @param action the work to run.
+     * @return the value returned by the action.
+     */
+    public static <T> T run(Supplier<T> action) {
+        if (CONTEXT.get() != null) return action.get();
+
+        CONTEXT.set(new HashMap<>());
+        try {
+            return action.get();
+        } finally {
+            CONTEXT.remove();
+        }
+    }
+
+    /**
+     * Whether a context is open on the current thread, so a projection fetched now is shared with the next
+     * ones of the same refresh.
+     *
+     * @return <code>true</code> inside {@link #run(Supplier)}.
+     */
+    public static boolean isOpen() {
+        return CONTEXT.get() != null;
+    }
+
+    /**
+     * Returns the value memoized for the key in the current context, loading it when absent.
+     * When no context is open the loader is always called.
+     *
+     * @param key    identity of the response (provider, id, language...).
+     * @param loader call that fetches the response from the provider.
+     * @return the memoized or freshly loaded response.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T computeIfAbsent(Object key, Supplier<T> loader) {
+        var memo = CONTEXT.get();
+        if (memo == null) return loader.get();
+
+        var value = (T) memo.get(key);
+        if (value == null) {
+            value = loader.get();
+            if (value != null) memo.put(key, value);
+        }
+
+        return value;
+    }
+}
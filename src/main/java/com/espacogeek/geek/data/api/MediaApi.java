@@ -1,8 +1,12 @@
 package com.espacogeek.geek.data.api;
 
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
-import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
 
 import com.espacogeek.geek.models.AlternativeTitleModel;
 import com.espacogeek.geek.models.ExternalReferenceModel;
@@ -20,8 +24,15 @@ public interface MediaApi {
     public final static Integer IGDB_TOKEN = 3;
     public final static Integer IGDB_CLIENT_SECRET = 4;
     public final static Integer NINJA_QUOTE_API_KEY = 5;
-
-    default public JSONArray updateTitles() {
+    public final static String DEFAULT_LOCALE = "en-US";
+
+    /**
+     * Read every title of the provider catalog, in batches.
+     *
+     * @param batchSize max number of titles of each batch.
+     * @param consumer  called with each batch of raw titles, only one batch is kept in memory at a time.
+     */
+    default public void streamTitles(int batchSize, Consumer<List<JSONObject>> consumer) {
         throw new UnsupportedOperationException();
     }
 
@@ -29,6 +40,70 @@ public interface MediaApi {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Get the fields the provider localizes (name, about and the seasons) in the locale.
+     * <p>
+     * With {@link #DEFAULT_LOCALE} it's the same as {@link #getDetails(Integer)}, with other locales only the
+     * localized fields are filled.
+     *
+     * @param id     provider ID of the media.
+     * @param locale locale of the fields, like <code>pt-BR</code>.
+     * @return the media with the localized fields.
+     */
+    default public MediaModel getDetails(Integer id, String locale) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Get the details of many medias at once.
+     * <p>
+     * Providers that accept multi-ID queries override this to group the IDs in batches, the default
+     * implementation calls {@link #getDetails(Integer)} once per ID.
+     *
+     * @param ids provider IDs of the medias.
+     * @return a map of provider ID to <code>MediaModel</code>, IDs not found by the provider are absent.
+     */
+    default public Map<Integer, MediaModel> getDetails(List<Integer> ids) {
+        var details = new HashMap<Integer, MediaModel>();
+
+        for (Integer id : ids) {
+            var media = getDetails(id);
+            if (media != null) details.put(id, media);
+        }
+
+        return details;
+    }
+
+    /**
+     * Get a page of the provider catalog, ordered by provider ID.
+     *
+     * @param afterId      only medias with provider ID greater than this one.
+     * @param untilId      only medias with provider ID less than or equal to this one.
+     * @param updatedSince when not <code>null</code>, only medias changed on the provider after this date.
+     * @return the medias of the page, empty when there are no more medias in the range.
+     */
+    default public List<MediaModel> getCatalog(Integer afterId, Integer untilId, Date updatedSince) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Get the greatest provider ID of the catalog.
+     */
+    default public Integer getLastCatalogId() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Get the provider IDs of the medias changed on the provider between the dates.
+     *
+     * @param since start of the period.
+     * @param until end of the period.
+     * @return the provider IDs, without duplicates.
+     */
+    default public List<Integer> getChanges(Date since, Date until) {
+        throw new UnsupportedOperationException();
+    }
+
     default public MediaModel getArtwork(Integer id) {
         throw new UnsupportedOperationException();
     }
@@ -2,7 +2,13 @@ package com.espacogeek.geek.data.api.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.retry.annotation.Backoff;
@@ -10,10 +16,10 @@ import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
 import com.api.igdb.apicalypse.APICalypse;
+import com.api.igdb.apicalypse.Sort;
 import com.api.igdb.exceptions.RequestException;
 import com.api.igdb.request.IGDBWrapper;
 import com.api.igdb.request.ProtoRequestKt;
-import com.api.igdb.request.TwitchAuthenticator;
 import com.api.igdb.utils.ImageBuilderKt;
 import com.api.igdb.utils.ImageSize;
 import com.api.igdb.utils.ImageType;
@@ -21,10 +27,10 @@ import com.espacogeek.geek.data.MediaDataController;
 import com.espacogeek.geek.data.api.MediaApi;
 import com.espacogeek.geek.models.AlternativeTitleModel;
 import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.GenreModel;
 import com.espacogeek.geek.models.MediaCategoryModel;
 import com.espacogeek.geek.models.MediaModel;
 import com.espacogeek.geek.models.TypeReferenceModel;
-import com.espacogeek.geek.services.ApiKeyService;
 import com.espacogeek.geek.services.GenreService;
 import com.espacogeek.geek.services.MediaCategoryService;
 import com.espacogeek.geek.services.TypeReferenceService;
@@ -37,7 +43,7 @@ import proto.Search;
 public class GamesAndVNsApiImpl implements MediaApi {
 
     @Autowired
-    private ApiKeyService apiKeyService;
+    private IgdbTokenManager tokenManager;
     private IGDBWrapper wrapper;
     private TypeReferenceModel typeReference;
     @Autowired
@@ -45,128 +51,250 @@ public class GamesAndVNsApiImpl implements MediaApi {
     @Autowired
     private MediaCategoryService mediaCategoryService;
     private MediaCategoryModel category;
+    private MediaCategoryModel vnCategory;
     private final static String VN_ID_IGDB = "34"; // VN Genre ID in IGDB
+    private final static String DETAILS_FIELDS = "*, artworks.image_id, cover.image_id, genres.id, genres.name, alternative_names.name";
+    private final static int IGDB_BATCH_SIZE = 500; // max results per IGDB request
+    private final static long IGDB_REQUEST_INTERVAL_MILLIS = 250; // IGDB rate limit is 4 requests per second
+    private final AtomicLong nextRequestAt = new AtomicLong();
     @Autowired
     private GenreService genreService;
 
-    private void newToken() {
-        var tAuth = TwitchAuthenticator.INSTANCE;
-        var clientId = apiKeyService.findById(IGDB_CLIENT_ID).orElseThrow().getKey();
-        var clientSecrete = apiKeyService.findById(IGDB_CLIENT_SECRET).orElseThrow().getKey();
-        var token = tAuth.requestTwitchToken(clientId, clientSecrete);
-        var tokenId = apiKeyService.findById(IGDB_TOKEN).orElseThrow();
-
-        if (!token.getAccess_token().equals(tokenId.getKey())) {
-            tokenId.setKey(token.getAccess_token());
-            apiKeyService.save(tokenId);
-        }
-
-        wrapper.setCredentials(clientId, tokenId.getKey());
-    }
-
     @PostConstruct
     private void init() {
-        var tokenId = apiKeyService.findById(IGDB_TOKEN).orElseThrow();
-        var clientId = apiKeyService.findById(IGDB_CLIENT_ID).orElseThrow().getKey();
-
-        wrapper = IGDBWrapper.INSTANCE;
-        wrapper.setCredentials(clientId, tokenId.getKey());
+        wrapper = IGDBWrapper.INSTANCE; // credentials are kept by IgdbTokenManager
 
         typeReference = typeReferenceService.findById(MediaDataController.IGDB_ID).orElseThrow();
         category = mediaCategoryService.findById(MediaDataController.GAME_ID).orElseThrow();
+        vnCategory = mediaCategoryService.findById(MediaDataController.VN_ID).orElseThrow();
     }
 
     @Override
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
     public MediaModel getDetails(Integer id) {
-        var apicalypse = new APICalypse().fields("*, artworks.image_id, cover.image_id, genres.name").where("id = " + id);
+        var apicalypse = new APICalypse().fields(DETAILS_FIELDS).where("id = " + id);
         MediaModel media = null;
 
+        var token = prepareRequest();
         try {
             var searchGames = ProtoRequestKt.games(wrapper, apicalypse);
 
-            for (Game result : searchGames) {
-                if ((long) result.getId() != (long) 0l) {
-                    var reference = new ExternalReferenceModel(null, String.valueOf(result.getId()), media, typeReference);
-                    media = new MediaModel();
-
-                    List<String> genresName = new ArrayList<>();
-                    result.getGenresList().forEach((genre) -> {
-                        genresName.add(genre.getName());
-                    });
-
-                    media.setGenre(genreService.findAllByNames(genresName));
-                    media.setAbout(result.getSummary());
-                    media.setName(result.getName());
-
-                    media.setCover(
-                            !"".equals(result.getCover().getImageId())
-                                    ? ImageBuilderKt.imageBuilder(result.getCover().getImageId(),
-                                            ImageSize.COVER_BIG, ImageType.PNG)
-                                    : null);
-                    media.setBanner(result.getArtworksList().isEmpty() ? null
-                            : ImageBuilderKt.imageBuilder(result.getArtworksList().getFirst().getImageId(),
-                                    ImageSize.SCREENSHOT_HUGE, ImageType.PNG));
-
-                    var alternativeTitles = new ArrayList<AlternativeTitleModel>();
-                    for (proto.AlternativeName title : result.getAlternativeNamesList()) {
-                        if (!title.getName().equals("")) alternativeTitles.add(new AlternativeTitleModel(null, title.getName(), media));
-                    }
-                    media.setAlternativeTitles(alternativeTitles);
-                    media.setExternalReference(new ArrayList<>(Arrays.asList(reference)));
-                    media.setMediaCategory(category);
-                }
+            var games = formatGames(searchGames);
+            if (!games.isEmpty()) media = games.getFirst();
+
+        } catch (RequestException e) {
+            onRequestFailure(e, token);
+            throw new com.espacogeek.geek.exception.RequestException();
+        }
+        return media;
+    }
+
+    /**
+     * @see MediaApi#getDetails(List)
+     *
+     * The IDs are sent in groups of {@value #IGDB_BATCH_SIZE} (<code>where id = (a,b,c,...)</code>) and the
+     * requests are spaced to stay under the IGDB rate limit, so refreshing N games costs N / 500 requests.
+     */
+    @Override
+    public Map<Integer, MediaModel> getDetails(List<Integer> ids) {
+        var details = new HashMap<Integer, MediaModel>();
+        var distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+
+        for (int i = 0; i < distinctIds.size(); i += IGDB_BATCH_SIZE) {
+            var batch = distinctIds.subList(i, Math.min(i + IGDB_BATCH_SIZE, distinctIds.size()));
+            var where = batch.stream().map(String::valueOf).collect(Collectors.joining(",", "id = (", ")"));
+            var apicalypse = new APICalypse().fields(DETAILS_FIELDS).where(where).limit(IGDB_BATCH_SIZE);
+
+            for (MediaModel media : formatGames(requestGames(apicalypse))) {
+                details.put(Integer.valueOf(media.getExternalReference().getFirst().getReference()), media);
             }
+        }
 
+        return details;
+    }
+
+    /**
+     * @see MediaApi#getCatalog(Integer, Integer, Date)
+     */
+    @Override
+    public List<MediaModel> getCatalog(Integer afterId, Integer untilId, Date updatedSince) {
+        var where = "id > " + afterId + " & id <= " + untilId;
+        if (updatedSince != null) where += " & updated_at > " + updatedSince.toInstant().getEpochSecond();
+
+        var apicalypse = new APICalypse().fields(DETAILS_FIELDS).where(where).sort("id", Sort.ASCENDING).limit(IGDB_BATCH_SIZE);
+
+        return formatGames(requestGames(apicalypse));
+    }
+
+    /**
+     * @see MediaApi#getLastCatalogId()
+     */
+    @Override
+    public Integer getLastCatalogId() {
+        var apicalypse = new APICalypse().fields("id").sort("id", Sort.DESCENDING).limit(1);
+        var games = requestGames(apicalypse);
+
+        return games.isEmpty() ? 0 : (int) games.getFirst().getId();
+    }
+
+    /**
+     * Do a <code>games</code> request, when the token is rejected it's renewed and the request is done
+     * one more time.
+     */
+    private List<Game> requestGames(APICalypse apicalypse) {
+        var token = prepareRequest();
+        try {
+            return ProtoRequestKt.games(wrapper, apicalypse);
         } catch (RequestException e) {
-            newToken();
+            onRequestFailure(e, token);
+        }
+
+        token = prepareRequest();
+        try {
+            return ProtoRequestKt.games(wrapper, apicalypse);
+        } catch (RequestException e) {
+            onRequestFailure(e, token);
             throw new com.espacogeek.geek.exception.RequestException();
         }
+    }
+
+    /**
+     * Wait for a request slot and make sure the token is valid before sending the request.
+     *
+     * @return the token used on the request.
+     */
+    private String prepareRequest() {
+        throttle();
+        return tokenManager.getToken();
+    }
+
+    /**
+     * Renew the token only when IGDB rejected it, other failures (like rate limit) don't need a new token.
+     */
+    private void onRequestFailure(RequestException e, String token) {
+        if (e.getStatusCode() == 401 || e.getStatusCode() == 403) {
+            tokenManager.invalidate(token);
+        }
+    }
+
+    /**
+     * Reserve the next request slot and wait for it. Slots are {@value #IGDB_REQUEST_INTERVAL_MILLIS}ms
+     * apart, IGDB accepts 4 requests per second.
+     */
+    private void throttle() {
+        var now = System.currentTimeMillis();
+        var slot = Math.max(nextRequestAt.getAndAccumulate(now, (next, current) -> Math.max(next, current) + IGDB_REQUEST_INTERVAL_MILLIS), now);
+
+        if (slot > now) {
+            try {
+                Thread.sleep(slot - now);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Format the games of one response, the genres of all games are resolved with a single query.
+     */
+    private List<MediaModel> formatGames(List<Game> results) {
+        var games = results.stream().filter((result) -> (long) result.getId() != (long) 0l).toList();
+        var genresName = games.stream().flatMap((result) -> result.getGenresList().stream()).map((genre) -> genre.getName()).distinct().toList();
+        Map<String, GenreModel> genres = genresName.isEmpty() ? new HashMap<>() : genreService.findAllByNames(genresName).stream()
+                .collect(Collectors.toMap(GenreModel::getName, (genre) -> genre, (first, second) -> first));
+
+        return games.stream().map((result) -> formatGame(result, genres)).toList();
+    }
+
+    private MediaModel formatGame(Game result, Map<String, GenreModel> genres) {
+        var media = new MediaModel();
+        var reference = new ExternalReferenceModel(null, String.valueOf(result.getId()), media, typeReference);
+
+        List<GenreModel> mediaGenres = new ArrayList<>();
+        result.getGenresList().forEach((genre) -> {
+            if (genres.containsKey(genre.getName())) mediaGenres.add(genres.get(genre.getName()));
+        });
+
+        media.setGenre(mediaGenres);
+        media.setAbout(result.getSummary());
+        media.setName(result.getName());
+        media.setPopularity((double) result.getTotalRatingCount());
+
+        media.setCover(
+                !"".equals(result.getCover().getImageId())
+                        ? ImageBuilderKt.imageBuilder(result.getCover().getImageId(),
+                                ImageSize.COVER_BIG, ImageType.PNG)
+                        : null);
+        media.setBanner(result.getArtworksList().isEmpty() ? null
+                : ImageBuilderKt.imageBuilder(result.getArtworksList().getFirst().getImageId(),
+                        ImageSize.SCREENSHOT_HUGE, ImageType.PNG));
+
+        var alternativeTitles = new ArrayList<AlternativeTitleModel>();
+        for (proto.AlternativeName title : result.getAlternativeNamesList()) {
+            if (!title.getName().equals("")) alternativeTitles.add(new AlternativeTitleModel(null, title.getName(), media));
+        }
+        media.setAlternativeTitles(alternativeTitles);
+        media.setExternalReference(new ArrayList<>(Arrays.asList(reference)));
+
+        media.setMediaCategory(categoryOf(result));
+
         return media;
     }
 
     @Override
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
     public List<MediaModel> doSearch(String search, MediaCategoryModel mediaCategoryModel) {
-        var apicalypse = new APICalypse().search(search).fields("game.age_ratings, game.aggregated_rating, game.alternative_names.name, game.artworks.image_id, game.cover.image_id, game.name").where("game.genres " + (mediaCategoryModel.getId() == MediaDataController.GAME_ID ? "!=" : "=") + " [" + VN_ID_IGDB + "]").limit(10);
-        List<MediaModel> medias = new ArrayList<>();
+        var apicalypse = new APICalypse().search(search).fields("game.age_ratings, game.aggregated_rating, game.alternative_names.name, game.artworks.image_id, game.cover.image_id, game.genres.id, game.name").where("game.genres " + (mediaCategoryModel.getId() == MediaDataController.GAME_ID ? "!=" : "=") + " [" + VN_ID_IGDB + "]").limit(10);
 
+        var token = prepareRequest();
         try {
-            var searchGames = ProtoRequestKt.search(wrapper, apicalypse);
-
-            for (Search result : searchGames) {
-                if ((long) result.getGame().getId() != (long) 0l) {
-                    var media = new MediaModel();
-                    var reference = new ExternalReferenceModel(null, String.valueOf(result.getGame().getId()), media, typeReference);
-
-                    media.setName(result.getGame().getName());
-                    media.setCover(
-                            !"".equals(result.getGame().getCover().getImageId())
-                                    ? ImageBuilderKt.imageBuilder(result.getGame().getCover().getImageId(),
-                                            ImageSize.COVER_BIG, ImageType.PNG)
-                                    : null);
-                    media.setBanner(result.getGame().getArtworksList().isEmpty() ? null
-                            : ImageBuilderKt.imageBuilder(result.getGame().getArtworksList().getFirst().getImageId(),
-                                    ImageSize.SCREENSHOT_HUGE, ImageType.PNG));
-
-                    var alternativeTitles = new ArrayList<AlternativeTitleModel>();
-                    for (proto.AlternativeName title : result.getGame().getAlternativeNamesList()) {
-                        if (!title.getName().equals("")) alternativeTitles.add(new AlternativeTitleModel(null, title.getName(), media));
-                    }
-                    media.setAlternativeTitles(alternativeTitles);
-                    media.setExternalReference(new ArrayList<>(Arrays.asList(reference)));
-
-                    media.setMediaCategory(category);
-
-                    medias.add(media);
-                }
-            }
-
+            return formatSearch(ProtoRequestKt.search(wrapper, apicalypse));
         } catch (RequestException e) {
-            newToken();
+            onRequestFailure(e, token);
             throw new com.espacogeek.geek.exception.RequestException();
         }
+    }
+
+    /**
+     * Format the games of a search response. Like {@link #formatGame(Game, Map)} the visual novels, with the
+     * IGDB genre {@value #VN_ID_IGDB}, are saved as VN and the others as GAME.
+     */
+    List<MediaModel> formatSearch(List<Search> results) {
+        List<MediaModel> medias = new ArrayList<>();
+
+        for (Search result : results) {
+            if ((long) result.getGame().getId() != (long) 0l) {
+                var media = new MediaModel();
+                var reference = new ExternalReferenceModel(null, String.valueOf(result.getGame().getId()), media, typeReference);
+
+                media.setName(result.getGame().getName());
+                media.setCover(
+                        !"".equals(result.getGame().getCover().getImageId())
+                                ? ImageBuilderKt.imageBuilder(result.getGame().getCover().getImageId(),
+                                        ImageSize.COVER_BIG, ImageType.PNG)
+                                : null);
+                media.setBanner(result.getGame().getArtworksList().isEmpty() ? null
+                        : ImageBuilderKt.imageBuilder(result.getGame().getArtworksList().getFirst().getImageId(),
+                                ImageSize.SCREENSHOT_HUGE, ImageType.PNG));
+
+                var alternativeTitles = new ArrayList<AlternativeTitleModel>();
+                for (proto.AlternativeName title : result.getGame().getAlternativeNamesList()) {
+                    if (!title.getName().equals("")) alternativeTitles.add(new AlternativeTitleModel(null, title.getName(), media));
+                }
+                media.setAlternativeTitles(alternativeTitles);
+                media.setExternalReference(new ArrayList<>(Arrays.asList(reference)));
+
+                media.setMediaCategory(categoryOf(result.getGame()));
+
+                medias.add(media);
+            }
+        }
 
         return medias;
     }
+
+    private MediaCategoryModel categoryOf(Game game) {
+        var isVisualNovel = game.getGenresList().stream().anyMatch((genre) -> String.valueOf(genre.getId()).equals(VN_ID_IGDB));
+        return isVisualNovel ? vnCategory : category;
+    }
 }
@@ -0,0 +1,139 @@
+package com.espacogeek.geek.data.api.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.igdb.request.IGDBWrapper;
+import com.api.igdb.request.TwitchAuthenticator;
+import com.espacogeek.geek.data.api.MediaApi;
+import com.espacogeek.geek.services.ApiKeyService;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Keeps the IGDB (Twitch) token valid.
+ * <p>
+ * The token and its expiration are stored in the <code>api_keys</code> table, so every node shares the
+ * same token. It's renewed in background {@link #REFRESH_AHEAD} before it expires, only one caller per
+ * node renews it at a time and the row is locked while renewing, so nodes that lose the race reuse the
+ * token written by the winner instead of asking Twitch for another one.
+ */
+@Component
+public class IgdbTokenManager {
+    private static final Logger log = LoggerFactory.getLogger(IgdbTokenManager.class);
+    private static final Duration REFRESH_AHEAD = Duration.ofHours(24);
+
+    @Autowired
+    private ApiKeyService apiKeyService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile String clientId;
+    private volatile String token;
+    private volatile Instant expiresAt;
+
+    @PostConstruct
+    private void init() {
+        var tokenId = apiKeyService.findById(MediaApi.IGDB_TOKEN).orElseThrow();
+        clientId = apiKeyService.findById(MediaApi.IGDB_CLIENT_ID).orElseThrow().getKey();
+
+        apply(tokenId.getKey(), tokenId.getExpiresAt());
+    }
+
+    /**
+     * Returns a token that can be used right now. When the token is already expired it's renewed before
+     * returning, so the first request after the expiration doesn't fail.
+     *
+     * @return the current IGDB token.
+     */
+    public String getToken() {
+        var expiration = expiresAt;
+        if (token == null || token.isBlank() || (expiration != null && !Instant.now().isBefore(expiration))) {
+            refresh(token);
+        }
+
+        return token;
+    }
+
+    /**
+     * Renews the token after IGDB rejected it. When other caller already renewed it, nothing is done.
+     *
+     * @param rejectedToken the token used on the rejected request.
+     */
+    public void invalidate(String rejectedToken) {
+        refresh(rejectedToken);
+    }
+
+    /**
+     * Renews the token ahead of its expiration and picks up tokens renewed by other nodes.
+     */
+    @Scheduled(fixedDelay = 10 * 60 * 1000, initialDelay = 60 * 1000)
+    @SuppressWarnings("unused")
+    private void refreshAhead() {
+        try {
+            var stored = apiKeyService.findById(MediaApi.IGDB_TOKEN).orElseThrow();
+            if (stored.getKey() != null && !stored.getKey().equals(token)) {
+                apply(stored.getKey(), stored.getExpiresAt());
+            }
+
+            if (expiresAt == null || Instant.now().plus(REFRESH_AHEAD).isAfter(expiresAt)) {
+                refresh(token);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh IGDB token ahead of expiration: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Single-flight renew. Only the first caller with a stale token renews it, the others wait and use
+     * the renewed token.
+     */
+    private void refresh(String staleToken) {
+        refreshLock.lock();
+        try {
+            if (staleToken != null && !staleToken.equals(token)) return; // already renewed by other caller
+
+            transactionTemplate.executeWithoutResult(status -> {
+                var tokenId = apiKeyService.findByIdForUpdate(MediaApi.IGDB_TOKEN).orElseThrow();
+                var storedExpiration = tokenId.getExpiresAt() == null ? null : tokenId.getExpiresAt().toInstant();
+
+                // other node renewed it while we were waiting for the lock
+                if (tokenId.getKey() != null && !tokenId.getKey().equals(staleToken) && storedExpiration != null
+                        && Instant.now().plus(REFRESH_AHEAD).isBefore(storedExpiration)) {
+                    apply(tokenId.getKey(), tokenId.getExpiresAt());
+                    return;
+                }
+
+                var clientSecret = apiKeyService.findById(MediaApi.IGDB_CLIENT_SECRET).orElseThrow().getKey();
+                var twitchToken = TwitchAuthenticator.INSTANCE.requestTwitchToken(clientId, clientSecret);
+                if (twitchToken == null) throw new com.espacogeek.geek.exception.RequestException();
+
+                var expiration = Date.from(Instant.now().plusSeconds(twitchToken.getExpires_in()));
+                tokenId.setKey(twitchToken.getAccess_token());
+                tokenId.setExpiresAt(expiration);
+                apiKeyService.save(tokenId);
+
+                apply(tokenId.getKey(), expiration);
+                log.info("IGDB token renewed, expires at {}", expiration);
+            });
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void apply(String newToken, Date expiration) {
+        IGDBWrapper.INSTANCE.setCredentials(clientId, newToken);
+        expiresAt = expiration == null ? null : expiration.toInstant();
+        token = newToken;
+    }
+}
@@ -0,0 +1,217 @@
+package com.espacogeek.geek.data.api.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.json.simple.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Component;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.data.api.FetchContext;
+import com.espacogeek.geek.data.api.MediaApi;
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.services.ApiKeyService;
+import com.espacogeek.geek.services.GenreService;
+import com.espacogeek.geek.services.MediaCategoryService;
+import com.espacogeek.geek.services.TypeReferenceService;
+
+import info.movito.themoviedbapi.TmdbApi;
+import info.movito.themoviedbapi.TmdbMovies;
+import info.movito.themoviedbapi.model.core.Genre;
+import info.movito.themoviedbapi.model.movies.MovieDb;
+import info.movito.themoviedbapi.tools.TmdbException;
+import info.movito.themoviedbapi.tools.appendtoresponse.MovieAppendToResponse;
+import jakarta.annotation.PostConstruct;
+
+@Component("moviesApi")
+public class MoviesApiImpl implements MediaApi {
+    private TmdbMovies api;
+
+    @Autowired
+    private ApiKeyService apiKeyService;
+
+    @Autowired
+    private MediaCategoryService mediaCategoryService;
+
+    @Autowired
+    private TypeReferenceService typeReferenceService;
+
+    @Autowired
+    private GenreService genreService;
+
+    @PostConstruct
+    private void init() {
+        this.api = new TmdbApi(this.apiKeyService.findById(TMDB_API_KEY_ID).get().getKey()).getMovies();
+    }
+
+    /**
+     * @see MediaApi#streamTitles(int, Consumer)
+     *
+     * This function read the daily datajump of movies available by tmdb
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public void streamTitles(int batchSize, Consumer<List<JSONObject>> consumer) {
+        TmdbDailyExport.stream("movie_ids", batchSize, consumer);
+    }
+
+    /**
+     * Fetch the movie in the locale. With {@link MediaApi#DEFAULT_LOCALE} every append used by the
+     * <code>MediaApi</code> projections is requested, with other locales only the movie itself. Inside a
+     * {@link FetchContext} the response is fetched once per locale and refresh.
+     *
+     * @param id     TMDB ID of the movie.
+     * @param locale language of the response, like <code>pt-BR</code>.
+     * @return the raw movie details.
+     */
+    private MovieDb fetchMovie(Integer id, String locale) {
+        return FetchContext.computeIfAbsent(new MovieKey(id, locale), () -> {
+            try {
+                if (!DEFAULT_LOCALE.equals(locale)) return api.getDetails(id, locale);
+
+                return api.getDetails(id, locale, MovieAppendToResponse.EXTERNAL_IDS, MovieAppendToResponse.ALTERNATIVE_TITLES, MovieAppendToResponse.IMAGES, MovieAppendToResponse.VIDEOS);
+            } catch (TmdbException e) {
+                throw new com.espacogeek.geek.exception.RequestException();
+            }
+        });
+    }
+
+    private record MovieKey(Integer id, String language) {
+    }
+
+    /**
+     * @see MediaApi#getDetails(Integer)
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public MediaModel getDetails(Integer id) {
+        var rawMovieDetails = fetchMovie(id, DEFAULT_LOCALE);
+        var externalReferences = formatExternalReference(rawMovieDetails, id);
+        var trailer = getTrailer(rawMovieDetails);
+
+        if (trailer != null) externalReferences.add(trailer);
+
+        var movie = new MediaModel();
+        movie.setName(rawMovieDetails.getTitle());
+        movie.setEpisodeLength(rawMovieDetails.getRuntime());
+        movie.setAbout(rawMovieDetails.getOverview());
+        movie.setCover(rawMovieDetails.getPosterPath() == null ? null : URL_IMAGE_TMDB + rawMovieDetails.getPosterPath());
+        movie.setBanner(rawMovieDetails.getBackdropPath() == null ? null : URL_IMAGE_TMDB + rawMovieDetails.getBackdropPath());
+        movie.setMediaCategory(mediaCategoryService.findById(MediaDataController.MOVIE_ID).get());
+        movie.setExternalReference(externalReferences);
+        movie.setGenre(formatGenre(rawMovieDetails.getGenres()));
+        movie.setAlternativeTitles(formatAlternativeTitles(rawMovieDetails));
+        movie.setPopularity(rawMovieDetails.getPopularity());
+
+        return movie;
+    }
+
+    /**
+     * @see MediaApi#getDetails(Integer, String)
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public MediaModel getDetails(Integer id, String locale) {
+        if (DEFAULT_LOCALE.equals(locale)) return getDetails(id);
+
+        var rawMovieDetails = fetchMovie(id, locale);
+        var movie = new MediaModel();
+        movie.setName(rawMovieDetails.getTitle());
+        movie.setAbout(rawMovieDetails.getOverview());
+
+        return movie;
+    }
+
+    private ExternalReferenceModel getTrailer(MovieDb rawMovieDetails) {
+        if (rawMovieDetails.getVideos() == null || rawMovieDetails.getVideos().getResults() == null) return null;
+
+        return rawMovieDetails.getVideos().getResults().stream().filter(video -> "Trailer".equals(video.getType()))
+                .findFirst().map(video -> new ExternalReferenceModel(null, video.getKey(), null,
+                        typeReferenceService.findById(MediaDataController.YT_ID).get()))
+                .orElse(null);
+    }
+
+    /**
+     * @see MediaApi#getArtwork(Integer)
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public MediaModel getArtwork(Integer id) {
+        var rawMovieDetails = fetchMovie(id, DEFAULT_LOCALE);
+        var media = new MediaModel();
+
+        media.setCover(rawMovieDetails.getPosterPath() == null ? "" : URL_IMAGE_TMDB + rawMovieDetails.getPosterPath());
+        media.setBanner(rawMovieDetails.getBackdropPath() == null ? "" : URL_IMAGE_TMDB + rawMovieDetails.getBackdropPath());
+
+        return media;
+    }
+
+    /**
+     * @see MediaApi#getAlternativeTitles(Integer)
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public List<AlternativeTitleModel> getAlternativeTitles(Integer id) {
+        return formatAlternativeTitles(fetchMovie(id, DEFAULT_LOCALE));
+    }
+
+    private List<AlternativeTitleModel> formatAlternativeTitles(MovieDb rawMovieDetails) {
+        var alternativeTitles = new ArrayList<AlternativeTitleModel>();
+
+        if (rawMovieDetails.getAlternativeTitles() == null || rawMovieDetails.getAlternativeTitles().getTitles() == null) {
+            return alternativeTitles;
+        }
+
+        rawMovieDetails.getAlternativeTitles().getTitles().forEach((title) -> {
+            alternativeTitles.add(new AlternativeTitleModel(null, title.getTitle(), null));
+        });
+
+        return alternativeTitles;
+    }
+
+    /**
+     * @see MediaApi#getExternalReference(Integer)
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public List<ExternalReferenceModel> getExternalReference(Integer id) {
+        return formatExternalReference(fetchMovie(id, DEFAULT_LOCALE), id);
+    }
+
+    private List<ExternalReferenceModel> formatExternalReference(MovieDb rawMovieDetails, Integer id) {
+        var externalReferences = new ArrayList<ExternalReferenceModel>();
+
+        externalReferences.add(new ExternalReferenceModel(null, id.toString(), null,
+                typeReferenceService.findById(MediaDataController.TMDB_ID).get()));
+
+        var imdbId = rawMovieDetails.getExternalIds() == null ? null : rawMovieDetails.getExternalIds().getImdbId();
+        if (imdbId != null && !imdbId.isBlank()) {
+            externalReferences.add(new ExternalReferenceModel(null, imdbId, null,
+                    typeReferenceService.findById(MediaDataController.IMDB_ID).get()));
+        }
+
+        return externalReferences;
+    }
+
+    /**
+     * @see MediaApi#getGenre(Integer)
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public List<GenreModel> getGenre(Integer id) {
+        return formatGenre(fetchMovie(id, DEFAULT_LOCALE).getGenres());
+    }
+
+    private List<GenreModel> formatGenre(List<Genre> rawGenres) {
+        if (rawGenres == null || rawGenres.isEmpty()) return new ArrayList<>();
+
+        return genreService.findAllByNames(rawGenres.stream().map((rawGenre) -> rawGenre.getName()).toList());
+    }
+}
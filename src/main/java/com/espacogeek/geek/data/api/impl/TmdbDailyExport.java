@@ -0,0 +1,83 @@
+package com.espacogeek.geek.data.api.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.espacogeek.geek.exception.RequestException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+/**
+ * Reader of the TMDB daily ID exports (<code>tv_series_ids</code>, <code>movie_ids</code>...).
+ * <p>
+ * The gzip file is decompressed and parsed while it's downloaded, and its lines are handed over in batches,
+ * so only one batch is kept in memory no matter the size of the export.
+ */
+final class TmdbDailyExport {
+    private static final String URL_EXPORT = "http://files.tmdb.org/p/exports/{0}_{1}.json.gz";
+    private static final DateTimeFormatter EXPORT_DATE = DateTimeFormatter.ofPattern("MM_dd_yyyy");
+    private static final OkHttpClient client = new OkHttpClient();
+    private static final Logger log = LoggerFactory.getLogger(TmdbDailyExport.class);
+
+    private TmdbDailyExport() {
+    }
+
+    /**
+     * Stream the export of today.
+     *
+     * @param exportName name of the export, like <code>movie_ids</code>.
+     * @param batchSize  max number of lines of each batch.
+     * @param consumer   called with each batch, in file order.
+     */
+    static void stream(String exportName, int batchSize, Consumer<List<JSONObject>> consumer) {
+        var request = new Request.Builder()
+                .url(MessageFormat.format(URL_EXPORT, exportName, LocalDate.now().format(EXPORT_DATE)))
+                .get()
+                .build();
+
+        try (var response = client.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) throw new RequestException();
+
+            try (var reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(response.body().byteStream()), StandardCharsets.UTF_8))) {
+                var parser = new JSONParser();
+                List<JSONObject> batch = new ArrayList<>(batchSize);
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+
+                    try {
+                        batch.add((JSONObject) parser.parse(line));
+                    } catch (ParseException e) {
+                        log.warn("Invalid line on TMDB export {}: {}", exportName, line);
+                    }
+
+                    if (batch.size() >= batchSize) {
+                        consumer.accept(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+
+                if (!batch.isEmpty()) consumer.accept(batch);
+            }
+        } catch (IOException e) {
+            throw new RequestException();
+        }
+    }
+}
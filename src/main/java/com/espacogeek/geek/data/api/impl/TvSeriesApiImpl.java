@@ -1,29 +1,33 @@
 package com.espacogeek.geek.data.api.impl;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.zip.GZIPInputStream;
+import java.util.function.Consumer;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
 import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.data.api.FetchContext;
 import com.espacogeek.geek.data.api.MediaApi;
 import com.espacogeek.geek.models.AlternativeTitleModel;
 import com.espacogeek.geek.models.ExternalReferenceModel;
 import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
 import com.espacogeek.geek.models.MediaModel;
 import com.espacogeek.geek.models.SeasonModel;
 import com.espacogeek.geek.services.ApiKeyService;
@@ -43,9 +47,9 @@ import info.movito.themoviedbapi.model.tv.series.TvSeriesDb;
 import info.movito.themoviedbapi.tools.TmdbException;
 import info.movito.themoviedbapi.tools.appendtoresponse.TvSeriesAppendToResponse;
 import jakarta.annotation.PostConstruct;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.Response;
 
 @Component("tvSeriesApi")
 public class TvSeriesApiImpl implements MediaApi {
@@ -63,90 +67,143 @@ public class TvSeriesApiImpl implements MediaApi {
     @Autowired
     private GenreService genreService;
 
+    @Value("${tmdb.api.url:https://api.themoviedb.org/3}")
+    private String tmdbApiUrl;
+
+    private String apiKey;
+
+    private final OkHttpClient httpClient = new OkHttpClient();
+
+    private static final long TMDB_REQUEST_INTERVAL_MILLIS = 50; // keep the change feed under 20 requests per second
+
     @PostConstruct
     private void init() {
-        this.api = new TmdbApi(this.apiKeyService.findById(TMDB_API_KEY_ID).get().getKey()).getTvSeries();
+        this.apiKey = this.apiKeyService.findById(TMDB_API_KEY_ID).get().getKey();
+        this.api = new TmdbApi(this.apiKey).getTvSeries();
     }
 
     /**
-     * @see MediaApi#updateTitles()
-     *
-     * This function get the daily datajump available by tmdb
+     * @see MediaApi#getChanges(Date, Date)
      *
-     * @return a JSON Array with all serie titles
-     * @throws IOException
-     * @throws ParseException
+     * Pages through the TMDB TV change list (<code>/tv/changes</code>), TMDB accepts at most 14 days per
+     * request. The base URL comes from <code>tmdb.api.url</code>, so it can point to a local stub server.
      */
-    @SuppressWarnings({ "unchecked", "null" })
     @Override
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
-    public JSONArray updateTitles() {
-        var now = LocalDateTime.now();
-
-        // formatting the date to do request as tmdb pattern
-        var month = String.valueOf(now.getMonth().getValue()).length() == 1
-                ? "0".concat(String.valueOf(now.getMonth().getValue()))
-                : now.getMonth().getValue();
-        var day = String.valueOf(now.getDayOfMonth()).length() == 1 ? "0".concat(String.valueOf(now.getDayOfMonth()))
-                : now.getDayOfMonth();
-        var year = String.valueOf(now.getYear()).replace(".", "");
-
-        var client = new OkHttpClient().newBuilder().build();
-        Request request = null;
-        try {
-            request = new Request.Builder()
-                    .url(MessageFormat.format("http://files.tmdb.org/p/exports/tv_series_ids_{0}_{1}_{2}.json.gz",
-                            month,
-                            day, year))
-                    .method("GET", null)
-                    .addHeader("Content-Type", "application/json")
+    public List<Integer> getChanges(Date since, Date until) {
+        var format = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+        var ids = new LinkedHashSet<Integer>();
+        long page = 1;
+        long totalPages = 1;
+
+        do {
+            var url = HttpUrl.parse(tmdbApiUrl + "/tv/changes").newBuilder()
+                    .addQueryParameter("api_key", apiKey)
+                    .addQueryParameter("start_date", format.format(since.toInstant()))
+                    .addQueryParameter("end_date", format.format(until.toInstant()))
+                    .addQueryParameter("page", String.valueOf(page))
                     .build();
-        } catch (Exception e) {
-            throw new com.espacogeek.geek.exception.RequestException();
-        }
+            var request = new Request.Builder().url(url).get().build();
 
-        Response response = null;
-        try {
-            response = client.newCall(request).execute();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+            try (var response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    throw new com.espacogeek.geek.exception.RequestException();
+                }
 
-        GZIPInputStream inputStream = null;
-        String[] json = null;
-        try {
-            inputStream = new GZIPInputStream(new ByteArrayInputStream(response.body().bytes()));
-            json = new String(inputStream.readAllBytes()).split("\n");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+                var json = (JSONObject) new JSONParser().parse(response.body().string());
+                for (Object item : (JSONArray) json.get("results")) {
+                    var change = (JSONObject) item;
+                    if (change.get("id") != null) ids.add(((Number) change.get("id")).intValue());
+                }
+                totalPages = json.get("total_pages") == null ? page : ((Number) json.get("total_pages")).longValue();
+            } catch (IOException | ParseException e) {
+                throw new com.espacogeek.geek.exception.RequestException();
+            }
 
-        JSONArray jsonArray = new JSONArray();
-        for (var item : json) {
-            JSONParser parser = new JSONParser();
-            JSONObject jsonObject = null;
+            page++;
             try {
-                jsonObject = (JSONObject) parser.parse(item);
-            } catch (ParseException e) {
-                e.printStackTrace();
+                Thread.sleep(TMDB_REQUEST_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
-            jsonArray.add(jsonObject);
+        } while (page <= totalPages);
+
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * @see MediaApi#doSearch(String, MediaCategoryModel)
+     *
+     * Searches the series of TMDB by name (<code>/search/tv</code>), the first page only. Each result has
+     * only its TMDB reference, the details are read when the serie is updated.
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public List<MediaModel> doSearch(String search, MediaCategoryModel mediaCategoryModel) {
+        var url = HttpUrl.parse(tmdbApiUrl + "/search/tv").newBuilder()
+                .addQueryParameter("api_key", apiKey)
+                .addQueryParameter("query", search)
+                .addQueryParameter("page", "1")
+                .build();
+        var request = new Request.Builder().url(url).get().build();
+        var typeReference = typeReferenceService.findById(MediaDataController.TMDB_ID).get();
+        List<MediaModel> medias = new ArrayList<>();
+
+        try (var response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new com.espacogeek.geek.exception.RequestException();
+            }
+
+            var json = (JSONObject) new JSONParser().parse(response.body().string());
+            for (Object item : (JSONArray) json.get("results")) {
+                var result = (JSONObject) item;
+                if (result.get("id") == null || result.get("name") == null) continue;
+
+                var media = new MediaModel();
+                var posterPath = (String) result.get("poster_path");
+                var backdropPath = (String) result.get("backdrop_path");
+                var originalName = (String) result.get("original_name");
+
+                media.setName((String) result.get("name"));
+                media.setAbout((String) result.get("overview"));
+                media.setCover(posterPath == null ? null : URL_IMAGE_TMDB + posterPath);
+                media.setBanner(backdropPath == null ? null : URL_IMAGE_TMDB + backdropPath);
+                media.setPopularity(result.get("popularity") == null ? null : ((Number) result.get("popularity")).doubleValue());
+                media.setMediaCategory(mediaCategoryModel);
+                media.setExternalReference(new ArrayList<>(List.of(new ExternalReferenceModel(null, String.valueOf(((Number) result.get("id")).intValue()), media, typeReference))));
+                media.setAlternativeTitles(new ArrayList<>());
+                if (originalName != null && !originalName.isBlank() && !originalName.equals(media.getName())) {
+                    media.getAlternativeTitles().add(new AlternativeTitleModel(null, originalName, media));
+                }
+
+                medias.add(media);
+            }
+        } catch (IOException | ParseException e) {
+            throw new com.espacogeek.geek.exception.RequestException();
         }
-        return jsonArray;
+
+        return medias;
     }
 
     /**
-     * @see MediaApi#updateTitles(Integer)
+     * @see MediaApi#streamTitles(int, Consumer)
+     *
+     * This function read the daily datajump available by tmdb
+     */
+    @Override
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    public void streamTitles(int batchSize, Consumer<List<JSONObject>> consumer) {
+        TmdbDailyExport.stream("tv_series_ids", batchSize, consumer);
+    }
+
+    /**
+     * @see MediaApi#getDetails(Integer)
      */
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
     @Override
     public MediaModel getDetails(Integer id) {
-        TvSeriesDb rawSerieDetails = new TvSeriesDb();
-        try {
-            rawSerieDetails = api.getDetails(id, "en-US", TvSeriesAppendToResponse.EXTERNAL_IDS, TvSeriesAppendToResponse.ALTERNATIVE_TITLES, TvSeriesAppendToResponse.IMAGES, TvSeriesAppendToResponse.VIDEOS);
-        } catch (TmdbException e) {
-            throw new com.espacogeek.geek.exception.RequestException();
-        }
+        TvSeriesDb rawSerieDetails = fetchSerie(id, DEFAULT_LOCALE);
 
         var season = formatSeason(rawSerieDetails.getSeasons());
         var trailer = getTrailer(rawSerieDetails);
@@ -169,11 +226,78 @@ public class TvSeriesApiImpl implements MediaApi {
                 formatGenre(rawSerieDetails.getGenres()),
                 null,
                 formatAlternativeTitles(rawSerieDetails.getAlternativeTitles().getResults()),
-                season);
+                season,
+                rawSerieDetails.getPopularity(),
+                null);
+
+        return serie;
+    }
+
+    /**
+     * @see MediaApi#getDetails(Integer, String)
+     */
+    @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
+    @Override
+    public MediaModel getDetails(Integer id, String locale) {
+        if (DEFAULT_LOCALE.equals(locale)) return getDetails(id);
+
+        TvSeriesDb rawSerieDetails = fetchSerie(id, locale);
+        var serie = new MediaModel();
+
+        serie.setName(rawSerieDetails.getName());
+        serie.setAbout(rawSerieDetails.getOverview());
+        serie.setSeason(rawSerieDetails.getSeasons() == null ? new ArrayList<>() : formatSeason(rawSerieDetails.getSeasons()));
 
         return serie;
     }
 
+    /**
+     * Fetch the serie in the locale. With {@link MediaApi#DEFAULT_LOCALE} every append used by the
+     * <code>MediaApi</code> projections is requested, with other locales only the serie itself.
+     * <p>
+     * Inside a {@link FetchContext} the response is fetched once per locale and shared by
+     * {@link #getDetails(Integer)}, {@link #getGenre(Integer)}, {@link #getSeason(Integer)},
+     * {@link #getExternalReference(Integer)}, {@link #getAlternativeTitles(Integer)} and
+     * {@link #getArtwork(Integer)}.
+     *
+     * @param id     TMDB ID of the serie.
+     * @param locale language of the response, like <code>pt-BR</code>.
+     * @return the raw serie details.
+     */
+    private TvSeriesDb fetchSerie(Integer id, String locale) {
+        return FetchContext.computeIfAbsent(new SerieKey(id, locale), () -> {
+            try {
+                if (!DEFAULT_LOCALE.equals(locale)) return api.getDetails(id, locale);
+
+                return api.getDetails(id, locale, TvSeriesAppendToResponse.EXTERNAL_IDS, TvSeriesAppendToResponse.ALTERNATIVE_TITLES, TvSeriesAppendToResponse.IMAGES, TvSeriesAppendToResponse.VIDEOS);
+            } catch (TmdbException e) {
+                throw new com.espacogeek.geek.exception.RequestException();
+            }
+        });
+    }
+
+    /**
+     * Fetch the serie with only the append needed by one projection when no {@link FetchContext} is open, since
+     * the response can't be shared with other projections. Inside a context the whole serie is fetched once,
+     * see {@link #fetchSerie(Integer, String)}.
+     *
+     * @param id     TMDB ID of the serie.
+     * @param append the append used by the projection.
+     * @return the raw serie details.
+     */
+    private TvSeriesDb fetchSerie(Integer id, TvSeriesAppendToResponse append) {
+        if (FetchContext.isOpen()) return fetchSerie(id, DEFAULT_LOCALE);
+
+        try {
+            return api.getDetails(id, DEFAULT_LOCALE, append);
+        } catch (TmdbException e) {
+            throw new com.espacogeek.geek.exception.RequestException();
+        }
+    }
+
+    private record SerieKey(Integer id, String language) {
+    }
+
     public ExternalReferenceModel getTrailer(TvSeriesDb rawSerieDetails) {
         ExternalReferenceModel trailers = null;
 
@@ -191,16 +315,13 @@ public class TvSeriesApiImpl implements MediaApi {
     @Override
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
     public MediaModel getArtwork(Integer id) {
-        Images rawArtwork = new Images();
-        try {
-            rawArtwork = api.getImages(id, "en");
-        } catch (TmdbException e) {
-            throw new com.espacogeek.geek.exception.RequestException();
-        }
+        Images rawArtwork = fetchSerie(id, DEFAULT_LOCALE).getImages();
         var media = new MediaModel();
 
-        media.setCover(rawArtwork.getPosters().isEmpty() ? "" : URL_IMAGE_TMDB + rawArtwork.getPosters().getFirst());
-        media.setBanner(rawArtwork.getBackdrops().isEmpty() ? "" : URL_IMAGE_TMDB + rawArtwork.getBackdrops().getFirst());
+        if (rawArtwork == null) return media;
+
+        media.setCover(rawArtwork.getPosters() == null || rawArtwork.getPosters().isEmpty() ? "" : URL_IMAGE_TMDB + rawArtwork.getPosters().getFirst().getFilePath());
+        media.setBanner(rawArtwork.getBackdrops() == null || rawArtwork.getBackdrops().isEmpty() ? "" : URL_IMAGE_TMDB + rawArtwork.getBackdrops().getFirst().getFilePath());
 
         return media;
     }
@@ -224,13 +345,12 @@ public class TvSeriesApiImpl implements MediaApi {
     @Override
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
     public List<AlternativeTitleModel> getAlternativeTitles(Integer id) {
-        List<AlternativeTitle> rawAlternativeTitles = new ArrayList<>();
-        try {
-            rawAlternativeTitles = api.getAlternativeTitles(id).getResults();
-        } catch (TmdbException e) {
-            throw new com.espacogeek.geek.exception.RequestException();
+        var rawSerieDetails = fetchSerie(id, TvSeriesAppendToResponse.ALTERNATIVE_TITLES);
+
+        if (rawSerieDetails.getAlternativeTitles() == null) {
+            return new ArrayList<AlternativeTitleModel>();
         }
-        return formatAlternativeTitles(rawAlternativeTitles);
+        return formatAlternativeTitles(rawSerieDetails.getAlternativeTitles().getResults());
     }
 
     private List<AlternativeTitleModel> formatAlternativeTitles(List<AlternativeTitle> rawAlternativeTitles) {
@@ -249,13 +369,7 @@ public class TvSeriesApiImpl implements MediaApi {
     @Override
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
     public List<ExternalReferenceModel> getExternalReference(Integer id) {
-        ExternalIds rawExternalReferences = new ExternalIds();
-        try {
-            rawExternalReferences = api.getExternalIds(id);
-        } catch (TmdbException e) {
-            throw new com.espacogeek.geek.exception.RequestException();
-        }
-        return formatExternalReference(rawExternalReferences, id);
+        return formatExternalReference(fetchSerie(id, TvSeriesAppendToResponse.EXTERNAL_IDS).getExternalIds(), id);
     }
 
     private List<ExternalReferenceModel> formatExternalReference(ExternalIds rawExternalReferences, Integer id) {
@@ -282,12 +396,7 @@ public class TvSeriesApiImpl implements MediaApi {
     @Override
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
     public List<GenreModel> getGenre(Integer id) {
-        TvSeriesDb rawSerieDetails = new TvSeriesDb();
-        try {
-            rawSerieDetails = api.getDetails(id, "en-US");
-        } catch (TmdbException e) {
-            throw new com.espacogeek.geek.exception.RequestException();
-        }
+        TvSeriesDb rawSerieDetails = fetchSerie(id, DEFAULT_LOCALE);
 
         if (rawSerieDetails == null || rawSerieDetails.getGenres() == null) {
             return new ArrayList<GenreModel>();
@@ -322,14 +431,11 @@ public class TvSeriesApiImpl implements MediaApi {
     @Override
     @Retryable(maxAttempts = 2, backoff = @Backoff(delay = 2000), retryFor = com.espacogeek.geek.exception.RequestException.class)
     public List<SeasonModel> getSeason(Integer id) {
-        List<TvSeason> rawSession = new ArrayList<>();
+        List<TvSeason> rawSession = fetchSerie(id, DEFAULT_LOCALE).getSeasons();
 
-        try {
-            rawSession = api.getDetails(id, "en-US").getSeasons();
-        } catch (TmdbException e) {
-            throw new com.espacogeek.geek.exception.RequestException();
+        if (rawSession == null) {
+            return new ArrayList<SeasonModel>();
         }
-
         return formatSeason(rawSession);
     }
 
@@ -0,0 +1,198 @@
+package com.espacogeek.geek.data.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.espacogeek.geek.data.api.MediaApi;
+import com.espacogeek.geek.exception.GenericException;
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SyncStateModel;
+import com.espacogeek.geek.models.TypeReferenceModel;
+import com.espacogeek.geek.services.AlternativeTitlesService;
+import com.espacogeek.geek.services.ExternalReferenceService;
+import com.espacogeek.geek.services.MediaFacetService;
+import com.espacogeek.geek.services.MediaIndexService;
+import com.espacogeek.geek.services.MediaSuggestService;
+import com.espacogeek.geek.services.SyncStateService;
+import com.espacogeek.geek.services.TypeReferenceService;
+
+import jakarta.annotation.PostConstruct;
+
+@Component("gameController")
+@Qualifier("gameController")
+public class GameControllerImpl extends GenericMediaDataControllerImpl {
+    public static final String IGDB_CATALOG_SYNC = "igdb-games";
+    private static final int CATALOG_CURSORS = 4; // IGDB accepts 4 requests per second, so more cursors only wait
+
+    private static final Logger log = LoggerFactory.getLogger(GameControllerImpl.class);
+
+    @Autowired
+    private MediaApi gamesAndVNsAPI;
+    @Autowired
+    private ExternalReferenceService externalReferenceService;
+    @Autowired
+    private AlternativeTitlesService alternativeTitlesService;
+    @Autowired
+    private TypeReferenceService typeReferenceService;
+    @Autowired
+    private SyncStateService syncStateService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MediaIndexService mediaIndexService;
+    @Autowired
+    private MediaSuggestService mediaSuggestService;
+    @Autowired
+    private MediaFacetService mediaFacetService;
+    private TypeReferenceModel typeReference;
+
+    @PostConstruct
+    private void init() {
+        this.typeReference = typeReferenceService.findById(IGDB_ID)
+                .orElseThrow(() -> new GenericException("Type Reference not found"));
+    }
+
+    /**
+     * This method import the IGDB catalog of games and visual novels.
+     * <p>
+     * The IGDB ID space is split in {@value #CATALOG_CURSORS} ranges that are paged in parallel, each page
+     * (up to 500 games) is written in one transaction. The first run imports the whole catalog, the next
+     * ones only the games changed on IGDB (<code>updated_at</code>) since the last successful run.
+     * <p>
+     * Every day at 4:00AM this function is executed.
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    @SuppressWarnings("unused")
+    private void updateGames() {
+        var startedAt = Date.from(Instant.now());
+        var syncState = syncStateService.findByName(IGDB_CATALOG_SYNC).orElse(new SyncStateModel(IGDB_CATALOG_SYNC, null));
+        var imported = new AtomicInteger();
+
+        try (var executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            var lastId = gamesAndVNsAPI.getLastCatalogId();
+            var rangeSize = lastId / CATALOG_CURSORS + 1;
+            List<Future<?>> cursors = new ArrayList<>();
+
+            for (int i = 0; i < CATALOG_CURSORS; i++) {
+                final int from = i * rangeSize;
+                final int until = Math.min(from + rangeSize, lastId);
+                cursors.add(executorService.submit(() -> {
+                    var cursor = from;
+                    while (cursor < until) {
+                        var page = gamesAndVNsAPI.getCatalog(cursor, until, syncState.getLastSync());
+                        if (page.isEmpty()) break;
+
+                        upsertCatalogPage(page);
+                        imported.addAndGet(page.size());
+                        cursor = Integer.valueOf(page.getLast().getExternalReference().getFirst().getReference());
+                    }
+                }));
+            }
+
+            for (Future<?> cursor : cursors) {
+                cursor.get();
+            }
+
+            syncState.setLastSync(startedAt);
+            syncStateService.save(syncState);
+
+            log.info("SUCCESS TO UPDATE GAMES, {} games imported, AT {}", imported.get(), LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("FAILED TO UPDATE GAMES, {} games imported before failure, AT {}", imported.get(), LocalDateTime.now(), e);
+        }
+    }
+
+    /**
+     * Insert the new games of the page and update the existing ones, with one lookup for the whole page.
+     *
+     * @param page games returned by the provider, each one with only its IGDB <code>ExternalReference</code>.
+     */
+    private void upsertCatalogPage(List<MediaModel> page) {
+        transactionTemplate.executeWithoutResult(status -> {
+            var references = page.stream().map((media) -> media.getExternalReference().getFirst().getReference()).toList();
+            Map<String, MediaModel> existing = externalReferenceService.findAllByReferencesAndType(references, typeReference).stream()
+                    .collect(Collectors.toMap(ExternalReferenceModel::getReference, ExternalReferenceModel::getMedia, (first, second) -> first));
+
+            var newMedias = new ArrayList<MediaModel>();
+            var newReferences = new ArrayList<ExternalReferenceModel>();
+            var newTitles = new ArrayList<AlternativeTitleModel>();
+            var now = Date.from(Instant.now());
+
+            for (MediaModel result : page) {
+                var reference = result.getExternalReference().getFirst();
+                var media = existing.get(reference.getReference());
+
+                if (media == null) {
+                    media = new MediaModel();
+                    media.setGenre(new ArrayList<>(result.getGenre()));
+                    media.setAlternativeTitles(new ArrayList<>());
+                    newMedias.add(media);
+
+                    reference.setMedia(media);
+                    newReferences.add(reference);
+                } else if (!sameGenres(media, result)) {
+                    media.setGenre(new ArrayList<>(result.getGenre()));
+                }
+
+                media.setName(result.getName());
+                media.setAbout(result.getAbout());
+                media.setCover(result.getCover());
+                media.setBanner(result.getBanner());
+                media.setMediaCategory(result.getMediaCategory());
+                media.setPopularity(result.getPopularity());
+                media.setUpdateAt(now);
+
+                for (AlternativeTitleModel title : result.getAlternativeTitles()) {
+                    final var currentMedia = media;
+                    if (currentMedia.getAlternativeTitles().stream().noneMatch((alternativeTitle) -> alternativeTitle.getName().equals(title.getName()))) {
+                        var newTitle = new AlternativeTitleModel(null, title.getName(), currentMedia);
+                        currentMedia.getAlternativeTitles().add(newTitle);
+                        newTitles.add(newTitle);
+                    }
+                }
+            }
+
+            mediaService.saveAll(newMedias);
+            externalReferenceService.saveAll(newReferences);
+            alternativeTitlesService.saveAll(newTitles);
+
+            // existing games are updated by dirty checking, so they don't pass through MediaService#saveAll
+            var updatedIds = existing.values().stream().map(MediaModel::getId).toList();
+            mediaIndexService.reindex(updatedIds);
+            mediaSuggestService.refresh(updatedIds);
+            mediaFacetService.refresh(updatedIds);
+        });
+    }
+
+    private boolean sameGenres(MediaModel media, MediaModel result) {
+        if (media.getGenre() == null) return result.getGenre().isEmpty();
+
+        var current = media.getGenre().stream().map((genre) -> genre.getId()).collect(Collectors.toSet());
+        var updated = result.getGenre().stream().map((genre) -> genre.getId()).collect(Collectors.toSet());
+
+        return current.equals(updated);
+    }
+
+    @Override
+    public MediaModel updateAllInformation(MediaModel media, MediaModel result) {
+        return super.updateAllInformation(media, result, this.typeReference, this.gamesAndVNsAPI);
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.context.annotation.Lazy;
 
 import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.data.api.FetchContext;
 import com.espacogeek.geek.data.api.MediaApi;
 import com.espacogeek.geek.exception.MediaAlreadyExist;
 import com.espacogeek.geek.models.AlternativeTitleModel;
@@ -30,6 +31,7 @@ import com.espacogeek.geek.models.TypeReferenceModel;
 import com.espacogeek.geek.services.AlternativeTitlesService;
 import com.espacogeek.geek.services.ExternalReferenceService;
 import com.espacogeek.geek.services.GenreService;
+import com.espacogeek.geek.services.MediaFacetService;
 import com.espacogeek.geek.services.MediaService;
 import com.espacogeek.geek.services.SeasonService;
 
@@ -51,6 +53,8 @@ public class GenericMediaDataControllerImpl implements MediaDataController {
     private ExternalReferenceService externalReferenceService;
     @Autowired
     private SeasonService seasonService;
+    @Autowired
+    private MediaFacetService mediaFacetService;
 
     public GenericMediaDataControllerImpl getInstance() {
         return this;
@@ -61,6 +65,15 @@ public class GenericMediaDataControllerImpl implements MediaDataController {
      */
     @Override
     public MediaModel updateAllInformation(MediaModel media, MediaModel result, TypeReferenceModel typeReference, MediaApi mediaApi) {
+        return FetchContext.run(() -> refreshAllInformation(media, result, typeReference, mediaApi));
+    }
+
+    /**
+     * Body of {@link #updateAllInformation(MediaModel, MediaModel, TypeReferenceModel, MediaApi)}, always
+     * called inside a {@link FetchContext} so every projection asked to <code>mediaApi</code> reuses the
+     * same provider response.
+     */
+    private MediaModel refreshAllInformation(MediaModel media, MediaModel result, TypeReferenceModel typeReference, MediaApi mediaApi) {
         if (result == null) {
             var id = media.getExternalReference().stream()
                         .filter(externalReference -> externalReference.getTypeReference().getId().equals(typeReference.getId()))
@@ -203,6 +216,8 @@ public class GenericMediaDataControllerImpl implements MediaDataController {
         });
 
         genreService.saveAll(media.getGenre());
+        // the genres are saved from their side, the facets of the media aren't refreshed by a save of the media
+        if (media.getId() != null) mediaFacetService.refresh(List.of(media.getId()));
         return media.getGenre();
     }
 
@@ -238,7 +253,14 @@ public class GenericMediaDataControllerImpl implements MediaDataController {
 
     @Override
     public List<MediaModel> searchMedia(String search, MediaApi mediaApi, TypeReferenceModel typeReference, MediaCategoryModel mediaCategory) {
-        var rawMediaSearchList = mediaApi.doSearch(search, mediaCategory);
+        return importSearchResults(mediaApi.doSearch(search, mediaCategory), mediaApi, typeReference, mediaCategory);
+    }
+
+    /**
+     * @see MediaDataController#importSearchResults(List, MediaApi, TypeReferenceModel, MediaCategoryModel)
+     */
+    @Override
+    public List<MediaModel> importSearchResults(List<MediaModel> rawMediaSearchList, MediaApi mediaApi, TypeReferenceModel typeReference, MediaCategoryModel mediaCategory) {
         var result = new ArrayList<MediaModel>();
 
         for (MediaModel mediaSearch : rawMediaSearchList) {
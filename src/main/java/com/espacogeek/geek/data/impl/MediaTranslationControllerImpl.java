@@ -0,0 +1,142 @@
+package com.espacogeek.geek.data.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.data.MediaTranslationController;
+import com.espacogeek.geek.data.api.FetchContext;
+import com.espacogeek.geek.data.api.MediaApi;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.MediaTranslationModel;
+import com.espacogeek.geek.models.SeasonModel;
+import com.espacogeek.geek.models.SeasonTranslationModel;
+import com.espacogeek.geek.services.TranslationService;
+
+@Component
+public class MediaTranslationControllerImpl implements MediaTranslationController {
+    private static final Duration TRANSLATION_TTL = Duration.ofDays(7);
+
+    private static final Logger log = LoggerFactory.getLogger(MediaTranslationControllerImpl.class);
+
+    @Autowired
+    private TranslationService translationService;
+    @Autowired
+    private MediaApi tvSeriesApi;
+    @Autowired
+    private MediaApi moviesApi;
+
+    /**
+     * @see MediaTranslationController#translate(List, String)
+     */
+    @Override
+    public Translations translate(List<MediaModel> medias, String locale) {
+        Map<Integer, MediaTranslationModel> mediaTranslations = new HashMap<>();
+        Map<Integer, SeasonTranslationModel> seasonTranslations = new HashMap<>();
+
+        if (medias.isEmpty() || locale == null || MediaApi.DEFAULT_LOCALE.equals(locale)) {
+            return new Translations(locale, mediaTranslations, seasonTranslations);
+        }
+
+        var mediaIds = medias.stream().map(MediaModel::getId).toList();
+        translationService.findMediaTranslations(mediaIds, locale).forEach((translation) -> mediaTranslations.put(translation.getMedia().getId(), translation));
+        translationService.findSeasonTranslations(mediaIds, locale).forEach((translation) -> seasonTranslations.put(translation.getSeason().getId(), translation));
+
+        Map<MediaModel, Future<MediaModel>> fetches = new LinkedHashMap<>();
+        try (var executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MediaModel media : medias) {
+                var mediaApi = getMediaApi(media);
+                var reference = getTmdbReference(media);
+                if (mediaApi == null || reference == null || !isStale(mediaTranslations.get(media.getId()))) continue;
+
+                fetches.put(media, executorService.submit(() -> FetchContext.run(() -> mediaApi.getDetails(reference, locale))));
+            }
+        }
+
+        var newMediaTranslations = new ArrayList<MediaTranslationModel>();
+        var newSeasonTranslations = new ArrayList<SeasonTranslationModel>();
+        var now = Date.from(Instant.now());
+
+        for (Map.Entry<MediaModel, Future<MediaModel>> fetch : fetches.entrySet()) {
+            var media = fetch.getKey();
+            MediaModel result;
+            try {
+                result = fetch.getValue().get();
+            } catch (ExecutionException e) {
+                log.warn("Failed to fetch the {} translation of media id={}: {}", locale, media.getId(), e.getCause().getMessage());
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            var translation = mediaTranslations.computeIfAbsent(media.getId(), (id) -> new MediaTranslationModel(null, media, locale, null, null, null));
+            translation.setName(blankToNull(result.getName()));
+            translation.setAbout(blankToNull(result.getAbout()));
+            translation.setUpdateAt(now);
+            newMediaTranslations.add(translation);
+
+            if (result.getSeason() == null || media.getSeason() == null) continue;
+
+            for (SeasonModel resultSeason : result.getSeason()) {
+                media.getSeason().stream()
+                        .filter((season) -> season.getSeasonNumber() != null && season.getSeasonNumber().equals(resultSeason.getSeasonNumber()))
+                        .findFirst()
+                        .ifPresent((season) -> {
+                            var seasonTranslation = seasonTranslations.computeIfAbsent(season.getId(), (id) -> new SeasonTranslationModel(null, season, locale, null, null));
+                            seasonTranslation.setName(blankToNull(resultSeason.getName()));
+                            seasonTranslation.setAbout(blankToNull(resultSeason.getAbout()));
+                            newSeasonTranslations.add(seasonTranslation);
+                        });
+            }
+        }
+
+        translationService.saveAllMediaTranslations(newMediaTranslations);
+        translationService.saveAllSeasonTranslations(newSeasonTranslations);
+
+        return new Translations(locale, mediaTranslations, seasonTranslations);
+    }
+
+    private MediaApi getMediaApi(MediaModel media) {
+        if (media.getMediaCategory() == null) return null;
+
+        return switch (media.getMediaCategory().getId()) {
+            case MediaDataController.SERIE_ID -> tvSeriesApi;
+            case MediaDataController.MOVIE_ID -> moviesApi;
+            default -> null; // IGDB doesn't localize its information
+        };
+    }
+
+    private Integer getTmdbReference(MediaModel media) {
+        if (media.getExternalReference() == null) return null;
+
+        return media.getExternalReference().stream()
+                .filter((reference) -> reference.getTypeReference().getId().equals(MediaDataController.TMDB_ID))
+                .findFirst()
+                .map((reference) -> Integer.valueOf(reference.getReference()))
+                .orElse(null);
+    }
+
+    private boolean isStale(MediaTranslationModel translation) {
+        return translation == null || translation.getUpdateAt() == null
+                || translation.getUpdateAt().toInstant().plus(TRANSLATION_TTL).isBefore(Instant.now());
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,127 @@
+package com.espacogeek.geek.data.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.simple.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.espacogeek.geek.data.api.MediaApi;
+import com.espacogeek.geek.exception.GenericException;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.TypeReferenceModel;
+import com.espacogeek.geek.services.ExternalReferenceService;
+import com.espacogeek.geek.services.MediaCategoryService;
+import com.espacogeek.geek.services.TypeReferenceService;
+
+import jakarta.annotation.PostConstruct;
+
+@Component("movieController")
+@Qualifier("movieController")
+public class MovieControllerImpl extends GenericMediaDataControllerImpl {
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(MovieControllerImpl.class);
+
+    @Autowired
+    private MediaApi moviesApi;
+    @Autowired
+    private MediaCategoryService mediaCategoryService;
+    @Autowired
+    private ExternalReferenceService externalReferenceService;
+    @Autowired
+    private TypeReferenceService typeReferenceService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    private TypeReferenceModel typeReference;
+
+    @PostConstruct
+    private void init() {
+        this.typeReference = typeReferenceService.findById(TMDB_ID)
+                .orElseThrow(() -> new GenericException("Type Reference not found"));
+    }
+
+    /**
+     * This method add the new movies of the TMDB daily export.
+     * <p>
+     * The export is streamed in batches of {@value #IMPORT_BATCH_SIZE}, the movies already saved are found
+     * with one query per batch and the new ones are written in one transaction per batch, only with the
+     * title and the TMDB <code>ExternalReference</code>. The other information is fetched when the movie
+     * is requested for the first time.
+     * <p>
+     * Every day at 10:00AM this function is executed.
+     */
+    @Scheduled(cron = "0 0 10 * * *")
+    @SuppressWarnings("unused")
+    private void updateMovies() {
+        MediaCategoryModel mediaCategory = mediaCategoryService.findById(MOVIE_ID)
+                .orElseThrow(() -> new GenericException("Category not found"));
+        var imported = new AtomicInteger();
+
+        try {
+            moviesApi.streamTitles(IMPORT_BATCH_SIZE, (batch) -> imported.addAndGet(importBatch(batch, mediaCategory)));
+
+            log.info("SUCCESS TO UPDATE MOVIES, {} movies imported, AT {}", imported.get(), LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("FAILED TO UPDATE MOVIES, {} movies imported before failure, AT {}", imported.get(), LocalDateTime.now(), e);
+        }
+    }
+
+    /**
+     * Save the movies of the batch that don't exist in database.
+     *
+     * @param batch lines of the daily export.
+     * @param mediaCategory category of the movies.
+     * @return the number of movies saved.
+     */
+    private int importBatch(List<JSONObject> batch, MediaCategoryModel mediaCategory) {
+        var movies = batch.stream()
+                .filter((json) -> !Boolean.TRUE.equals(json.get("adult")) && !Boolean.TRUE.equals(json.get("video")))
+                .filter((json) -> json.get("id") != null && json.get("original_title") != null)
+                .toList();
+        if (movies.isEmpty()) return 0;
+
+        var knownReferences = new HashSet<>(externalReferenceService.findExistingReferences(
+                movies.stream().map((json) -> json.get("id").toString()).toList(), typeReference));
+
+        var newMedias = new ArrayList<MediaModel>();
+        var newReferences = new ArrayList<ExternalReferenceModel>();
+
+        for (JSONObject json : movies) {
+            var reference = json.get("id").toString();
+            if (!knownReferences.add(reference)) continue; // already saved or repeated on the export
+
+            var media = new MediaModel();
+            media.setName(json.get("original_title").toString());
+            media.setMediaCategory(mediaCategory);
+            newMedias.add(media);
+
+            newReferences.add(new ExternalReferenceModel(null, reference, media, typeReference));
+        }
+
+        if (newMedias.isEmpty()) return 0;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            mediaService.saveAll(newMedias);
+            externalReferenceService.saveAll(newReferences);
+        });
+
+        return newMedias.size();
+    }
+
+    @Override
+    public MediaModel updateAllInformation(MediaModel media, MediaModel result) {
+        return super.updateAllInformation(media, result, this.typeReference, this.moviesApi);
+    }
+}
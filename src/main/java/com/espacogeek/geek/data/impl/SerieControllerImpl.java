@@ -1,15 +1,24 @@
 package com.espacogeek.geek.data.impl;
 
-import java.text.MessageFormat;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
 
 import org.json.simple.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -23,9 +32,11 @@ import com.espacogeek.geek.exception.GenericException;
 import com.espacogeek.geek.models.ExternalReferenceModel;
 import com.espacogeek.geek.models.MediaCategoryModel;
 import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SyncStateModel;
 import com.espacogeek.geek.models.TypeReferenceModel;
 import com.espacogeek.geek.services.ExternalReferenceService;
 import com.espacogeek.geek.services.MediaCategoryService;
+import com.espacogeek.geek.services.SyncStateService;
 import com.espacogeek.geek.services.TypeReferenceService;
 
 import jakarta.annotation.PostConstruct;
@@ -41,8 +52,20 @@ public class SerieControllerImpl extends GenericMediaDataControllerImpl {
     private ExternalReferenceService externalReferenceService;
     @Autowired
     private TypeReferenceService typeReferenceService;
+    @Autowired
+    private SyncStateService syncStateService;
     private TypeReferenceModel typeReference;
 
+    public static final String TMDB_CHANGES_SYNC = "tmdb-tv-changes";
+    private static final Duration TMDB_CHANGES_WINDOW = Duration.ofDays(14);
+    private static final int CHANGES_LOOKUP_SIZE = 1000;
+    private static final int REFRESH_PER_SECOND = 10;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int IMPORT_THREADS = 40;
+    private final Queue<Integer> refreshQueue = new ConcurrentLinkedQueue<>();
+    private final Set<Integer> queuedSeries = ConcurrentHashMap.newKeySet();
+    private static final Logger log = LoggerFactory.getLogger(SerieControllerImpl.class);
+
     @PostConstruct
     private void init() {
         this.typeReference = typeReferenceService.findById(TMDB_ID)
@@ -52,77 +75,157 @@ public class SerieControllerImpl extends GenericMediaDataControllerImpl {
     /**
      * This method update and add title of TV Series.
      * <p>
+     * The daily export is streamed in batches of {@value #IMPORT_BATCH_SIZE}, the series already saved are
+     * found with one query per batch and only the new ones are fetched from TMDB.
+     * <p>
      * Every day at 9:00AM this function is executed.
      */
-    @Scheduled(cron = "* * 9 * * *")
+    @Scheduled(cron = "0 0 9 * * *")
     // @Scheduled(initialDelay = 1)
     @SuppressWarnings("unused")
     private void updateTvSeries() {
         MediaCategoryModel mediaCategory = mediaCategoryService.findById(SERIE_ID)
                 .orElseThrow(() -> new GenericException("Category not found"));
-        ExecutorService executorService = Executors.newFixedThreadPool(400);
+        ExecutorService executorService = Executors.newFixedThreadPool(IMPORT_THREADS);
+        var imported = new AtomicInteger();
+
+        try {
+            tvSeriesApi.streamTitles(IMPORT_BATCH_SIZE, (batch) -> {
+                var references = batch.stream().map((json) -> json.get("id").toString()).toList();
+                var knownReferences = externalReferenceService.findExistingReferences(references, typeReference);
+
+                var tasks = new ArrayList<Callable<Void>>();
+                for (JSONObject json : batch) {
+                    if (knownReferences.contains(json.get("id").toString())) continue;
+                    tasks.add(() -> {
+                        if (importSerie(json, mediaCategory)) imported.incrementAndGet();
+                        return null;
+                    });
+                }
+
+                try {
+                    executorService.invokeAll(tasks); // wait the batch, so only one batch is kept in memory
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GenericException("TV Series import interrupted");
+                }
+            });
+
+            log.info("SUCCESS TO UPDATE TV SERIES, {} series imported, AT {}", imported.get(), LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("FAILED TO UPDATE TV SERIES, {} series imported before failure, AT {}", imported.get(), LocalDateTime.now(), e);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Save a serie of the daily export that doesn't exist in database.
+     *
+     * @param json line of the daily export.
+     * @param mediaCategory category of the serie.
+     * @return <code>true</code> when the serie was saved.
+     */
+    private boolean importSerie(JSONObject json, MediaCategoryModel mediaCategory) {
+        try {
+            boolean isAnime = false;
+            try {
+                isAnime = tvSeriesApi.getKeyword(Integer.valueOf(json.get("id").toString())).stream()
+                        .anyMatch((keyword) -> !keyword.getName().equalsIgnoreCase("anime"));
+            } catch (Exception e) {
+                isAnime = true;
+            }
+
+            if (!isAnime) return false;
+
+            var media = new MediaModel();
+            media.setMediaCategory(mediaCategory);
+            media.setName(json.get("original_name").toString());
+            var mediaSaved = mediaService.save(media);
+
+            var externalReference = new ExternalReferenceModel();
+            externalReference.setTypeReference(typeReference);
+            externalReference.setReference(json.get("id").toString());
+            externalReference.setMedia(mediaSaved);
+            var referenceSaved = externalReferenceService.save(externalReference);
+            List<ExternalReferenceModel> referenceListSaved = new ArrayList<>();
+            referenceListSaved.add(referenceSaved);
+            mediaSaved.setExternalReference(referenceListSaved);
+
+            media.setAlternativeTitles(updateAlternativeTitles(mediaSaved, null, typeReference, tvSeriesApi));
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to import serie {} - {}: {}", json.get("id"), json.get("original_name"), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * This method read the TMDB change list since the last sync and queue the known series that changed
+     * to be refreshed, so the refresh cost follows the number of changes instead of the catalog size.
+     * <p>
+     * Every 6 hours this function is executed.
+     */
+    @Scheduled(cron = "0 30 */6 * * *")
+    @SuppressWarnings("unused")
+    private void syncTvSeriesChanges() {
+        var now = Instant.now();
+        var syncState = syncStateService.findByName(TMDB_CHANGES_SYNC).orElse(new SyncStateModel(TMDB_CHANGES_SYNC, null));
+        var since = syncState.getLastSync() == null ? now.minus(Duration.ofDays(1)) : syncState.getLastSync().toInstant();
+
+        // TMDB keeps only the last 14 days of changes
+        if (since.isBefore(now.minus(TMDB_CHANGES_WINDOW))) {
+            log.warn("TV changes watermark {} is older than the TMDB change window, changes before {} were lost", since, now.minus(TMDB_CHANGES_WINDOW));
+            since = now.minus(TMDB_CHANGES_WINDOW);
+        }
 
         try {
-            var jsonArrayDailyExport = tvSeriesApi.updateTitles();
-            for (int i = 0; i < jsonArrayDailyExport.size(); i++) {
-                final int index = i;
-                executorService.submit(() -> {
-                    try {
-                        var media = new MediaModel();
-                        media.setMediaCategory(mediaCategory);
-
-                        var externalReference = new ExternalReferenceModel();
-                        externalReference.setTypeReference(typeReference);
-
-                        var json = (JSONObject) jsonArrayDailyExport.get(index);
-
-                        externalReference.setReference(json.get("id").toString());
-                        var externalReferenceExisted = externalReferenceService
-                                .findByReferenceAndType(externalReference.getReference(), typeReference);
-
-                        if (!externalReferenceExisted.isPresent()) {
-                            boolean isAnime = false;
-                            try {
-                                isAnime = tvSeriesApi.getKeyword(Integer.valueOf(json.get("id").toString())).stream()
-                                        .anyMatch((keyword) -> !keyword.getName().equalsIgnoreCase("anime"));
-                            } catch (Exception e) {
-                                isAnime = true;
-                            }
-
-                            if (isAnime) {
-                                media.setName(json.get("original_name").toString());
-
-                                if (externalReferenceExisted.isPresent()) {
-                                    media.setId(externalReferenceExisted.get().getMedia().getId());
-                                    externalReference.setId(externalReferenceExisted.get().getId());
-                                }
-
-                                var mediaSaved = mediaService.save(media);
-
-                                externalReference.setMedia(mediaSaved);
-                                var referenceSaved = externalReferenceService.save(externalReference);
-                                List<ExternalReferenceModel> referenceListSaved = new ArrayList<>();
-                                referenceListSaved.add(referenceSaved);
-                                mediaSaved.setExternalReference(referenceListSaved);
-
-                                media.setAlternativeTitles(updateAlternativeTitles(mediaSaved, null, typeReference, tvSeriesApi));
-                            }
-                        }
-                    } catch (Exception e) {
-                        var json = (JSONObject) jsonArrayDailyExport.get(index);
-                        System.out.println(json.get("id").toString() + " - " + json.get("original_name").toString());
+            var changedIds = tvSeriesApi.getChanges(Date.from(since), Date.from(now));
+            var queued = 0;
+
+            for (int i = 0; i < changedIds.size(); i += CHANGES_LOOKUP_SIZE) {
+                var references = changedIds.subList(i, Math.min(i + CHANGES_LOOKUP_SIZE, changedIds.size())).stream().map(String::valueOf).toList();
+                var mediaIds = externalReferenceService.findAllByReferencesAndType(references, typeReference).stream()
+                        .map((externalReference) -> externalReference.getMedia().getId())
+                        .distinct()
+                        .toList();
+
+                mediaService.markStale(mediaIds);
+                for (Integer mediaId : mediaIds) {
+                    if (queuedSeries.add(mediaId)) {
+                        refreshQueue.add(mediaId);
+                        queued++;
                     }
-                });
+                }
             }
-            executorService.shutdown();
-            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
 
-            System.out.println("SUCCESS TO UPDATE TV SERIES, AT " + LocalDateTime.now());
+            syncState.setLastSync(Date.from(now));
+            syncStateService.save(syncState);
+
+            log.info("SUCCESS TO SYNC TV SERIES CHANGES, {} changed on TMDB, {} queued to refresh, AT {}", changedIds.size(), queued, LocalDateTime.now());
         } catch (Exception e) {
-            System.out.println(MessageFormat.format("*# ------- FAILED TO UPDATE TV SERIES, AT {0} ------- *#",
-                    LocalDateTime.now()));
-            e.printStackTrace();
-            System.out.println("*# ----------------------------------------- *#");
+            log.error("FAILED TO SYNC TV SERIES CHANGES, AT {}", LocalDateTime.now(), e);
+        }
+    }
+
+    /**
+     * Refresh the series queued by {@link #syncTvSeriesChanges()}, at most {@value #REFRESH_PER_SECOND} per
+     * second to stay inside the TMDB rate limit.
+     */
+    @Scheduled(fixedDelay = 1000, initialDelay = 60 * 1000)
+    @SuppressWarnings("unused")
+    private void refreshChangedSeries() {
+        for (int i = 0; i < REFRESH_PER_SECOND; i++) {
+            var mediaId = refreshQueue.poll();
+            if (mediaId == null) return;
+
+            try {
+                mediaService.findByIdEager(mediaId).ifPresent((media) -> updateAllInformation(media, null));
+            } catch (Exception e) {
+                log.warn("Failed to refresh serie id={}: {}", mediaId, e.getMessage());
+            } finally {
+                queuedSeries.remove(mediaId);
+            }
         }
     }
 
@@ -10,8 +10,13 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
+
+import com.espacogeek.geek.utils.Utils;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -36,4 +41,20 @@ public class AlternativeTitleModel implements Serializable {
     @NotNull
     @JoinColumn(name = "id_media", nullable = false)
     private MediaModel media;
+
+    // name normalized by Utils#toSearchKey, kept in sync on every save
+    @Column(name = "search_key", length = Utils.SEARCH_KEY_LENGTH)
+    private String searchKey;
+
+    public AlternativeTitleModel(Integer id, String name, MediaModel media) {
+        this.id = id;
+        this.name = name;
+        this.media = media;
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void updateSearchKey() {
+        this.searchKey = Utils.toSearchKey(this.name);
+    }
 }
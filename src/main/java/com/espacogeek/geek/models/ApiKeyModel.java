@@ -1,11 +1,14 @@
 package com.espacogeek.geek.models;
 
 import java.io.Serializable;
+import java.util.Date;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -23,4 +26,9 @@ public class ApiKeyModel implements Serializable {
     @Column(name = "api_key")
     @Setter
     private String key;
+
+    @Column(name = "expires_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    @Setter
+    private Date expiresAt;
 }
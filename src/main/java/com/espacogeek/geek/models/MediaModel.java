@@ -20,10 +20,15 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 import jakarta.validation.constraints.NotNull;
+
+import com.espacogeek.geek.utils.Utils;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -104,4 +109,17 @@ public class MediaModel implements Serializable {
     @OneToMany(mappedBy = "media")
     @Fetch(FetchMode.SUBSELECT)
     private List<SeasonModel> season;
+
+    @Column(name = "popularity")
+    private Double popularity;
+
+    // name normalized by Utils#toSearchKey, kept in sync on every save
+    @Column(name = "search_key", length = Utils.SEARCH_KEY_LENGTH)
+    private String searchKey;
+
+    @PrePersist
+    @PreUpdate
+    private void updateSearchKey() {
+        this.searchKey = Utils.toSearchKey(this.name);
+    }
 }
@@ -0,0 +1,52 @@
+package com.espacogeek.geek.models;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "media_translations", uniqueConstraints = { @UniqueConstraint(name = "uk_media_translation_locale", columnNames = { "id_media", "locale" }) })
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaTranslationModel implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_media_translation")
+    private Integer id;
+
+    @ManyToOne
+    @NotNull
+    @JoinColumn(name = "id_media", nullable = false)
+    private MediaModel media;
+
+    @Column(name = "locale", length = 10, nullable = false)
+    private String locale;
+
+    @Column(name = "name_translation")
+    private String name;
+
+    @Column(name = "about_translation", columnDefinition = "TEXT")
+    private String about;
+
+    @Column(name = "update_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updateAt;
+}
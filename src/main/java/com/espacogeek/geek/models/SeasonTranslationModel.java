@@ -0,0 +1,45 @@
+package com.espacogeek.geek.models;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "season_translations", uniqueConstraints = { @UniqueConstraint(name = "uk_season_translation_locale", columnNames = { "id_season", "locale" }) })
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeasonTranslationModel implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_season_translation")
+    private Integer id;
+
+    @ManyToOne
+    @NotNull
+    @JoinColumn(name = "id_season", nullable = false)
+    private SeasonModel season;
+
+    @Column(name = "locale", length = 10, nullable = false)
+    private String locale;
+
+    @Column(name = "name_translation")
+    private String name;
+
+    @Column(name = "about_translation", length = 10000)
+    private String about;
+}
@@ -0,0 +1,31 @@
+package com.espacogeek.geek.models;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "sync_states")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncStateModel implements Serializable {
+    @Id
+    @Column(name = "name_sync", length = 100)
+    private String name;
+
+    @Column(name = "last_sync")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastSync;
+}
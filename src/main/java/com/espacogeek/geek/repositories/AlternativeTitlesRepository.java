@@ -1,11 +1,23 @@
 package com.espacogeek.geek.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.espacogeek.geek.models.AlternativeTitleModel;
 
 @Repository
 public interface AlternativeTitlesRepository extends JpaRepository <AlternativeTitleModel, Integer> {
-    
+    /**
+     * Find the alternative titles of the medias, without loading the entities.
+     *
+     * @param mediaIds IDs of the medias.
+     * @return rows of <code>[media id, title]</code>.
+     */
+    @Query("SELECT a.media.id, a.name FROM AlternativeTitleModel a WHERE a.media.id IN :mediaIds")
+    List<Object[]> findTitlesByMediaIdIn(@Param("mediaIds") Collection<Integer> mediaIds);
 }
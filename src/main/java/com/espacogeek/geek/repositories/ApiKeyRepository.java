@@ -1,10 +1,28 @@
 package com.espacogeek.geek.repositories;
 
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.espacogeek.geek.models.ApiKeyModel;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface ApiKeyRepository extends JpaRepository<ApiKeyModel, Integer> {
+
+    /**
+     * Find the api key locking its row until the end of the current transaction, so only one node
+     * renews a shared key at a time.
+     *
+     * @param id api key ID.
+     * @return a Optional of ApiKeyModel.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM ApiKeyModel a WHERE a.id = :id")
+    Optional<ApiKeyModel> findByIdForUpdate(@Param("id") Integer id);
 }
@@ -1,8 +1,13 @@
 package com.espacogeek.geek.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.espacogeek.geek.models.ExternalReferenceModel;
@@ -12,5 +17,25 @@ import com.espacogeek.geek.models.TypeReferenceModel;
 public interface ExternalReferenceRepository<T> extends JpaRepository<ExternalReferenceModel, Integer> {
     Optional<ExternalReferenceModel> findByReferenceAndTypeReference (String reference, TypeReferenceModel typeReference);
 
+    /**
+     * Find all external references of a type among the references provided, with their medias.
+     *
+     * @param references    values of the ExternalReferences.
+     * @param typeReference the Type Reference to find.
+     * @return a list of ExternalReferenceModel found.
+     */
+    @Query("SELECT e FROM ExternalReferenceModel e JOIN FETCH e.media WHERE e.reference IN :references AND e.typeReference = :typeReference")
+    List<ExternalReferenceModel> findAllByReferenceInAndTypeReference(@Param("references") Collection<String> references, @Param("typeReference") TypeReferenceModel typeReference);
+
+    /**
+     * Find which of the references provided already exist for the type, without loading the entities.
+     *
+     * @param references    values of the ExternalReferences.
+     * @param typeReference the Type Reference to find.
+     * @return the references that already exist.
+     */
+    @Query("SELECT e.reference FROM ExternalReferenceModel e WHERE e.reference IN :references AND e.typeReference = :typeReference")
+    Set<String> findExistingReferences(@Param("references") Collection<String> references, @Param("typeReference") TypeReferenceModel typeReference);
+
     // Optional<ExternalReferenceModel> findByReference (String reference);
 }
@@ -1,13 +1,15 @@
 package com.espacogeek.geek.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.espacogeek.geek.models.MediaModel;
 import com.espacogeek.geek.models.TypeReferenceModel;
@@ -24,31 +26,6 @@ public interface MediaRepository<T> extends JpaRepository<MediaModel, Integer>,
     // if at some time the queries become more complex, see https://www.jooq.org/
     // and https://persistence.blazebit.com/.
 
-    /**
-     * Finds media by matching name or alternative title within a specific media
-     * category.
-     *
-     * This query searches for MediaModel entities where the name or any alternative
-     * title matches the provided name or alternativeTitle parameters. It filters
-     * the
-     * results to only include those within the specified media category.
-     *
-     * @param name             The name of the media to search for.
-     * @param alternativeTitle The alternative title of the media to search for.
-     * @param category         The ID of the media category to filter results by.
-     * @return A list of MediaModel objects that match the search criteria.
-     */
-    @Query("SELECT DISTINCT m FROM MediaModel m " +
-            "LEFT JOIN AlternativeTitleModel a ON a MEMBER OF m.alternativeTitles " +
-            "WHERE m.mediaCategory.id = :category " +
-            "AND (m.name LIKE CONCAT('%',:name,'%') " +
-            "OR a.name LIKE CONCAT('%',:alternativeTitle,'%'))")
-    public Page<MediaModel> findMediaByNameOrAlternativeTitleAndMediaCategory(
-            @Param("name") String name,
-            @Param("alternativeTitle") String alternativeTitle,
-            @Param("category") Integer category,
-            @PageableDefault(size = 10, page = 0) Pageable pageable);
-
     /**
      * Find Media by ExternalReference and TypeReference.
      *
@@ -59,4 +36,62 @@ public interface MediaRepository<T> extends JpaRepository<MediaModel, Integer>,
     @Query("SELECT m FROM MediaModel m JOIN ExternalReferenceModel e ON e MEMBER OF m.externalReference WHERE e.reference = :reference AND e.typeReference = :typeReference")
     public Optional<MediaModel> findOneMediaByExternalReferenceAndTypeReference(@Param("reference") String reference,
             @Param("typeReference") TypeReferenceModel typeReference);
+
+    /**
+     * Find the medias after the ID provided, ordered by ID, to read the catalog in batches.
+     *
+     * @param id       the last ID read, the batch starts after it.
+     * @param pageable only the page size is used.
+     * @return the next medias.
+     */
+    public List<MediaModel> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    /**
+     * Find the ID, name, category and popularity of the medias after the ID provided, ordered by ID, without
+     * loading the entities.
+     *
+     * @param id       the last ID read, the batch starts after it.
+     * @param pageable only the page size is used.
+     * @return rows of <code>[id, name, category id, popularity]</code>.
+     */
+    @Query("SELECT m.id, m.name, m.mediaCategory.id, m.popularity FROM MediaModel m WHERE m.id > :id ORDER BY m.id")
+    public List<Object[]> findSuggestionRowsAfter(@Param("id") Integer id, Pageable pageable);
+
+    /**
+     * Find the ID, name, category and popularity of the medias provided, without loading the entities.
+     *
+     * @param ids IDs of the medias.
+     * @return rows of <code>[id, name, category id, popularity]</code>.
+     */
+    @Query("SELECT m.id, m.name, m.mediaCategory.id, m.popularity FROM MediaModel m WHERE m.id IN :ids")
+    public List<Object[]> findSuggestionRowsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Find the genres of the medias provided, without loading the entities.
+     *
+     * @param ids IDs of the medias.
+     * @return rows of <code>[media id, genre id]</code>.
+     */
+    @Query("SELECT m.id, g.id FROM MediaModel m JOIN m.genre g WHERE m.id IN :ids")
+    public List<Object[]> findGenreRowsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Find the first air date of the medias provided, the earliest of their seasons.
+     *
+     * @param ids IDs of the medias.
+     * @return rows of <code>[media id, first air date]</code>, medias without dated seasons are absent.
+     */
+    @Query("SELECT s.media.id, MIN(s.airDate) FROM SeasonModel s WHERE s.media.id IN :ids AND s.airDate IS NOT NULL GROUP BY s.media.id")
+    public List<Object[]> findFirstAirDateRowsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Clear the update date of the medias, so the next read refreshes them.
+     *
+     * @param ids IDs of the medias.
+     * @return number of medias changed.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaModel m SET m.updateAt = NULL WHERE m.id IN :ids")
+    public int clearUpdateAtByIdIn(@Param("ids") Collection<Integer> ids);
 }
@@ -1,15 +1,96 @@
 package com.espacogeek.geek.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
 import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SeasonModel;
+import com.espacogeek.geek.types.MediaCursor;
+import com.espacogeek.geek.utils.Utils;
 
 public interface MediaRepositoryCustom {
+    // Queries shorter than this use LIKE, FULLTEXT (ngram) matches poorly on one or two characters
+    public static final int MIN_FULLTEXT_LENGTH = 3;
+
+    /**
+     * Ids of the medias whose name or any alternative title match the FULLTEXT phrase, with the best
+     * relevance of each media as <code>score</code>. Bind the phrase with {@link #toFullTextPhrase(String)}
+     * as <code>:query</code>.
+     * <p>
+     * The category condition is applied in both branches, so only the matches of the categories searched are
+     * scored and grouped instead of the matches of the whole table.
+     *
+     * @param categoryCondition the condition on the category of the media, like <code>= :category</code> or
+     *                          <code>IN (:categories)</code>, or <code>null</code> for every category.
+     * @return the SQL of the hits, to join on <code>id</code>.
+     */
+    public static String fullTextHits(String categoryCondition) {
+        String nameCategory = categoryCondition == null ? "" : "AND n.id_category " + categoryCondition + " ";
+        String titleMedia = categoryCondition == null ? "" : "JOIN medias tm ON tm.id_media = t.id_media ";
+        String titleCategory = categoryCondition == null ? "" : " AND tm.id_category " + categoryCondition;
+
+        return "SELECT hits.id, MAX(hits.score) AS score FROM ("
+                + "SELECT n.id_media AS id, MATCH(n.name_media) AGAINST (:query IN BOOLEAN MODE) AS score FROM medias n "
+                + "WHERE MATCH(n.name_media) AGAINST (:query IN BOOLEAN MODE) " + nameCategory
+                + "UNION ALL "
+                + "SELECT t.id_media AS id, MATCH(t.name_title) AGAINST (:query IN BOOLEAN MODE) AS score FROM alternative_titles t "
+                + titleMedia
+                + "WHERE MATCH(t.name_title) AGAINST (:query IN BOOLEAN MODE)" + titleCategory
+                + ") hits GROUP BY hits.id";
+    }
+
+    /**
+     * A page read with keyset pagination.
+     *
+     * @param content   the medias of the page, in order.
+     * @param endCursor the position of the last media, to read the next page.
+     * @param hasNext   whether there are medias after this page.
+     */
+    public record Keyset(List<MediaModel> content, MediaCursor endCursor, boolean hasNext) {
+    }
+
+    /**
+     * Whether the search can use the FULLTEXT indexes.
+     *
+     * @param search the text searched.
+     * @return <code>true</code> when the text is long enough to FULLTEXT search.
+     */
+    public static boolean isFullTextSearch(String search) {
+        return search != null && search.strip().length() >= MIN_FULLTEXT_LENGTH;
+    }
+
+    /**
+     * Turns the text searched into a <code>LIKE</code> pattern matching the search keys that start with it,
+     * normalized like the stored keys so "Poké" finds "Pokémon" and the B-tree indexes of the keys are used.
+     *
+     * @param search the text searched.
+     * @return the pattern to bind, or <code>null</code> when the text has no letters or digits.
+     */
+    public static String toSearchKeyPrefix(String search) {
+        var key = Utils.toSearchKey(search);
+        return key == null ? null : key + "%";
+    }
+
+    /**
+     * Turns the text searched into a boolean mode phrase, so the operators of the FULLTEXT syntax typed by
+     * the user are searched as text.
+     *
+     * @param search the text searched.
+     * @return the phrase to bind to <code>AGAINST</code>.
+     */
+    public static String toFullTextPhrase(String search) {
+        return "\"" + search.strip().replace("\"", " ") + "\"";
+    }
 
     /**
      * Finds media by matching name or alternative title within a specific media
@@ -21,18 +102,149 @@ public interface MediaRepositoryCustom {
      * results to only include those within the specified media category. The
      * requestedFields parameter is optional and can be used to return only the
      * selected fields of the entities.
+     * <p>
+     * Names with at least {@value #MIN_FULLTEXT_LENGTH} characters are searched with the FULLTEXT indexes,
+     * shorter ones match the start of the search keys, see {@link #toSearchKeyPrefix(String)}. The matches
+     * are ranked before the page is cut: exact name, exact alternative title, name starting with the search,
+     * name containing it as whole words, then any other match. Ties are ordered by FULLTEXT relevance
+     * boosted by popularity, or by popularity for short names.
+     * <p>
+     * The matches are not counted, one row more than the page size is read to know whether there is a next
+     * page. See {@link #countMediaByNameAndMediaCategory(String, Integer, int)}.
+     * <p>
+     * The requested associations (<code>mediaCategory</code>, <code>genre</code>,
+     * <code>alternativeTitles</code>, <code>externalReference</code> and <code>season</code>) are loaded
+     * with one query each for the whole page.
      *
      * @param name             The name of the media to search for.
      * @param alternativeTitle The alternative title of the media to search for.
      * @param category         The ID of the media category to filter results by.
-     * @param requestedFields  A map of fields to return. If not provided, all
-     *                         fields will be returned.
-     * @return a Page of MediaModel objects that match the search criteria.
+     * @param requestedFields  A map of fields to return. If not provided, only
+     *                         the id and name are returned.
+     * @return a Slice of MediaModel objects that match the search criteria.
      */
-    public Page<MediaModel> findMediaByNameOrAlternativeTitleAndMediaCategory(
+    public Slice<MediaModel> findMediaByNameOrAlternativeTitleAndMediaCategory(
             String name,
             String alternativeTitle,
             Integer category,
             Map<String, List<String>> requestedFields,
             @PageableDefault(size = 10, page = 0) Pageable pageable);
+
+    /**
+     * Finds the medias after the cursor, matching the name or any alternative title within a media category,
+     * with keyset pagination. Each page seeks from the cursor with <code>(sort key, id) &gt; (?, ?)</code>
+     * instead of skipping the previous pages, so any page costs the same as the first one.
+     * <p>
+     * Names are ranked like
+     * {@link #findMediaByNameOrAlternativeTitleAndMediaCategory(String, String, Integer, Map, Pageable)}: by
+     * relevance when they have at least {@value #MIN_FULLTEXT_LENGTH} characters, by popularity when shorter.
+     * Without a name the category is ordered by name.
+     *
+     * @param name     The name or alternative title searched, or <code>null</code> to browse the category.
+     * @param category The ID of the media category, or <code>null</code> for all categories.
+     * @param after    The cursor of the last media read, or <code>null</code> for the first page.
+     * @param first    The size of the page.
+     * @param requestedFields The fields of the medias to return, with the same projection as
+     *                 {@link #findMediaByNameOrAlternativeTitleAndMediaCategory(String, String, Integer, Map, Pageable)},
+     *                 or <code>null</code> to return the entities.
+     * @return the page and the cursor of its last media.
+     */
+    public Keyset findMediaByNameAfter(String name, Integer category, MediaCursor after, int first, Map<String, List<String>> requestedFields);
+
+    /**
+     * Finds the best matches of the name or any alternative title in each media category, with one query for
+     * all the categories. The matches are ranked like
+     * {@link #findMediaByNameOrAlternativeTitleAndMediaCategory(String, String, Integer, Map, Pageable)} and
+     * numbered per category with <code>ROW_NUMBER() OVER (PARTITION BY category)</code>, so each category
+     * keeps its own top <code>limit</code>.
+     *
+     * @param name       The name or alternative title searched.
+     * @param categories The IDs of the media categories.
+     * @param limit      The max number of medias per category.
+     * @param requestedFields The fields of the medias to return, with the same projection as
+     *                   {@link #findMediaByNameOrAlternativeTitleAndMediaCategory(String, String, Integer, Map, Pageable)},
+     *                   or <code>null</code> to return the entities.
+     * @return the medias of each category with matches, best first.
+     */
+    public Map<Integer, List<MediaModel>> findMediaByNameGroupedByCategory(String name, List<Integer> categories, int limit, Map<String, List<String>> requestedFields);
+
+    /**
+     * Finds the medias of the IDs in one query, with the same projection as
+     * {@link #findMediaByNameOrAlternativeTitleAndMediaCategory(String, String, Integer, Map, Pageable)}.
+     *
+     * @param ids             The IDs of the medias.
+     * @param requestedFields The fields of the medias to return, or <code>null</code> to return the entities.
+     * @return the medias found, in any order.
+     */
+    public List<MediaModel> findMediaByIdIn(List<Integer> ids, Map<String, List<String>> requestedFields);
+
+    /**
+     * Finds the media with the associations provided initialized, following a fetch plan: the first query
+     * reads the media with its category and the first association, each other association is fetch joined
+     * by one more query on the same media. Joining several collections in one query would multiply their
+     * rows, so the cost is one statement per association, and none for the associations not requested.
+     * <p>
+     * Must run inside a transaction, so every query fills the same entity.
+     *
+     * @param id           The ID of the media.
+     * @param associations The collections to initialize, like <code>genre</code> or <code>season</code>,
+     *                     unknown names are ignored.
+     * @return the media, or empty when not found.
+     */
+    public Optional<MediaModel> findByIdWithAssociations(Integer id, Collection<String> associations);
+
+    /**
+     * Finds the category of each media in one query.
+     *
+     * @param ids The IDs of the medias.
+     * @return the category by media ID.
+     */
+    public Map<Integer, MediaCategoryModel> findCategoriesByMediaIdIn(Collection<Integer> ids);
+
+    /**
+     * Finds the genres of each media in one query.
+     *
+     * @param ids The IDs of the medias.
+     * @return the genres by media ID, with an empty list for the medias without genres.
+     */
+    public Map<Integer, List<GenreModel>> findGenresByMediaIdIn(Collection<Integer> ids);
+
+    /**
+     * Finds the alternative titles of each media in one query. The titles are read as scalars, so their
+     * back reference to the media isn't set.
+     *
+     * @param ids The IDs of the medias.
+     * @return the titles by media ID, with an empty list for the medias without titles.
+     */
+    public Map<Integer, List<AlternativeTitleModel>> findAlternativeTitlesByMediaIdIn(Collection<Integer> ids);
+
+    /**
+     * Finds the external references of each media in one query, with their type. The references are read
+     * as scalars, so their back reference to the media isn't set.
+     *
+     * @param ids The IDs of the medias.
+     * @return the references by media ID, with an empty list for the medias without references.
+     */
+    public Map<Integer, List<ExternalReferenceModel>> findExternalReferencesByMediaIdIn(Collection<Integer> ids);
+
+    /**
+     * Finds the seasons of each media in one query, ordered by season number. The seasons are read as
+     * scalars, so their back reference to the media isn't set.
+     *
+     * @param ids The IDs of the medias.
+     * @return the seasons by media ID, with an empty list for the medias without seasons.
+     */
+    public Map<Integer, List<SeasonModel>> findSeasonsByMediaIdIn(Collection<Integer> ids);
+
+    /**
+     * Counts the medias whose name or any alternative title match the name within a media category, with the
+     * same matching as the searches. The count stops at <code>limit</code>, so large results cost no more
+     * than reading <code>limit</code> index entries.
+     *
+     * @param name     The name or alternative title searched.
+     * @param category The ID of the media category.
+     * @param limit    The max count.
+     * @return the number of matches, at most <code>limit</code>.
+     */
+    public long countMediaByNameAndMediaCategory(String name, Integer category, int limit);
 }
@@ -0,0 +1,24 @@
+package com.espacogeek.geek.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.espacogeek.geek.models.MediaTranslationModel;
+
+@Repository
+public interface MediaTranslationRepository extends JpaRepository<MediaTranslationModel, Integer> {
+    /**
+     * Find the translations of the medias to the locale.
+     *
+     * @param mediaIds IDs of the medias.
+     * @param locale   locale of the translations, like <code>pt-BR</code>.
+     * @return the translations found, medias without translation to the locale are absent.
+     */
+    @Query("SELECT t FROM MediaTranslationModel t WHERE t.media.id IN :mediaIds AND t.locale = :locale")
+    List<MediaTranslationModel> findAllByMediaIdInAndLocale(@Param("mediaIds") Collection<Integer> mediaIds, @Param("locale") String locale);
+}
@@ -0,0 +1,24 @@
+package com.espacogeek.geek.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.espacogeek.geek.models.SeasonTranslationModel;
+
+@Repository
+public interface SeasonTranslationRepository extends JpaRepository<SeasonTranslationModel, Integer> {
+    /**
+     * Find the translations of the seasons of the medias to the locale.
+     *
+     * @param mediaIds IDs of the medias owning the seasons.
+     * @param locale   locale of the translations, like <code>pt-BR</code>.
+     * @return the translations found.
+     */
+    @Query("SELECT t FROM SeasonTranslationModel t WHERE t.season.media.id IN :mediaIds AND t.locale = :locale")
+    List<SeasonTranslationModel> findAllByMediaIdInAndLocale(@Param("mediaIds") Collection<Integer> mediaIds, @Param("locale") String locale);
+}
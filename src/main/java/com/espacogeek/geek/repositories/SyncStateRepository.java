@@ -0,0 +1,10 @@
+package com.espacogeek.geek.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.espacogeek.geek.models.SyncStateModel;
+
+@Repository
+public interface SyncStateRepository extends JpaRepository<SyncStateModel, String> {
+}
@@ -0,0 +1,188 @@
+package com.espacogeek.geek.repositories.impl;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.espacogeek.geek.models.MediaModel;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+/**
+ * Immutable description of the tables and columns of {@link MediaModel} used by the native searches, read
+ * once from the JPA metamodel so the searches don't use reflection.
+ */
+final class MediaMetamodel {
+    /**
+     * A scalar column of <code>medias</code>.
+     *
+     * @param field  name of the entity field, also used as the column alias.
+     * @param name   name of the column.
+     * @param setter sets the JDBC value on the entity, converted to the field type.
+     */
+    record ScalarColumn(String field, String name, BiConsumer<MediaModel, Object> setter) {
+    }
+
+    final String table;
+    final String idColumn;
+    final String categoryColumn;
+    final Map<String, ScalarColumn> scalars; // in declaration order
+    final String alternativeTitlesTable;
+    final String alternativeTitlesMediaColumn;
+    final String alternativeTitlesSearchKeyColumn;
+
+    private MediaMetamodel(String table, String idColumn, String categoryColumn, Map<String, ScalarColumn> scalars,
+            String alternativeTitlesTable, String alternativeTitlesMediaColumn, String alternativeTitlesSearchKeyColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.categoryColumn = categoryColumn;
+        this.scalars = Collections.unmodifiableMap(scalars);
+        this.alternativeTitlesTable = alternativeTitlesTable;
+        this.alternativeTitlesMediaColumn = alternativeTitlesMediaColumn;
+        this.alternativeTitlesSearchKeyColumn = alternativeTitlesSearchKeyColumn;
+    }
+
+    /**
+     * Reads the description of {@link MediaModel} and of its alternative titles.
+     *
+     * @param metamodel the JPA metamodel.
+     * @return the description.
+     * @throws IllegalStateException when a field can't be accessed.
+     */
+    static MediaMetamodel of(Metamodel metamodel) {
+        EntityType<MediaModel> media = metamodel.entity(MediaModel.class);
+
+        Map<String, SingularAttribute<? super MediaModel, ?>> basics = new HashMap<>();
+        for (SingularAttribute<? super MediaModel, ?> attribute : media.getSingularAttributes()) {
+            if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                basics.put(attribute.getName(), attribute);
+            }
+        }
+
+        Map<String, ScalarColumn> scalars = new LinkedHashMap<>();
+        String idColumn = null;
+        try {
+            for (Field field : MediaModel.class.getDeclaredFields()) {
+                var attribute = basics.get(field.getName());
+                if (attribute == null) continue;
+
+                var column = scalarColumn(field);
+                scalars.put(field.getName(), column);
+                if (attribute.isId()) idColumn = column.name();
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to access the setters of MediaModel", e);
+        }
+
+        var category = (Field) media.getSingularAttribute("mediaCategory").getJavaMember();
+
+        String alternativeTitlesTable = null;
+        String alternativeTitlesMediaColumn = null;
+        String alternativeTitlesSearchKeyColumn = null;
+        PluralAttribute<? super MediaModel, ?, ?> alternativeTitles = media.getPluralAttributes().stream()
+                .filter((attribute) -> attribute.getName().equals("alternativeTitles"))
+                .findFirst()
+                .orElse(null);
+        if (alternativeTitles != null) {
+            var title = metamodel.entity(alternativeTitles.getElementType().getJavaType());
+            var titleClass = title.getJavaType();
+            alternativeTitlesTable = tableName(titleClass);
+            alternativeTitlesSearchKeyColumn = columnName((Field) title.getSingularAttribute("searchKey").getJavaMember());
+            for (SingularAttribute<?, ?> attribute : title.getSingularAttributes()) {
+                if (attribute.getJavaType().equals(MediaModel.class)) {
+                    alternativeTitlesMediaColumn = joinColumnName((Field) attribute.getJavaMember());
+                }
+            }
+        }
+
+        return new MediaMetamodel(tableName(MediaModel.class), idColumn, joinColumnName(category), scalars,
+                alternativeTitlesTable, alternativeTitlesMediaColumn, alternativeTitlesSearchKeyColumn);
+    }
+
+    /**
+     * Describes a basic field of {@link MediaModel}, with its setter generated once.
+     *
+     * @param field the field, read from the metamodel.
+     * @return the column of the field.
+     * @throws Throwable when the setter can't be accessed.
+     */
+    static ScalarColumn scalarColumn(Field field) throws Throwable {
+        return new ScalarColumn(field.getName(), columnName(field), setter(MethodHandles.lookup(), field));
+    }
+
+    /**
+     * Generates a lambda calling the setter of the field directly, with the conversion of the JDBC value
+     * chosen once for the field type.
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<MediaModel, Object> setter(MethodHandles.Lookup lookup, Field field) throws Throwable {
+        var name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        var setter = lookup.findVirtual(MediaModel.class, name, MethodType.methodType(void.class, field.getType()));
+        var boxedType = MethodType.methodType(field.getType()).wrap().returnType();
+
+        var site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class), setter,
+                MethodType.methodType(void.class, MediaModel.class, boxedType));
+        var accept = (BiConsumer<MediaModel, Object>) site.getTarget().invokeExact();
+        var converter = converter(field.getType());
+
+        return (media, value) -> accept.accept(media, value == null ? null : converter.apply(value));
+    }
+
+    private static String tableName(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        return table != null && !table.name().isBlank() ? table.name() : camelToSnake(entityClass.getSimpleName());
+    }
+
+    private static String columnName(Field field) {
+        Column column = field.getAnnotation(Column.class);
+        return column != null && !column.name().isBlank() ? column.name() : camelToSnake(field.getName());
+    }
+
+    private static String joinColumnName(Field field) {
+        JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+        return joinColumn != null && !joinColumn.name().isBlank() ? joinColumn.name() : camelToSnake(field.getName()) + "_id";
+    }
+
+    private static String camelToSnake(String s) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (Character.isUpperCase(ch) && i > 0) out.append('_');
+            out.append(Character.toLowerCase(ch));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Chooses once, by field type, how the JDBC values are converted.
+     */
+    private static Function<Object, Object> converter(Class<?> type) {
+        if (type == Integer.class || type == int.class) return (value) -> value instanceof Number n ? n.intValue() : Integer.parseInt(value.toString());
+        if (type == Long.class || type == long.class) return (value) -> value instanceof Number n ? n.longValue() : Long.parseLong(value.toString());
+        if (type == Double.class || type == double.class) return (value) -> value instanceof Number n ? n.doubleValue() : Double.parseDouble(value.toString());
+        if (type == Float.class || type == float.class) return (value) -> value instanceof Number n ? n.floatValue() : Float.parseFloat(value.toString());
+        if (type == BigInteger.class) return (value) -> value instanceof Number n ? BigInteger.valueOf(n.longValue()) : null;
+        if (type == BigDecimal.class) return (value) -> value instanceof Number n ? BigDecimal.valueOf(n.doubleValue()) : null;
+        if (CharSequence.class.isAssignableFrom(type)) return String::valueOf;
+
+        // dates and other types are left to JDBC
+        return (value) -> type.isInstance(value) ? value : null;
+    }
+}
@@ -1,340 +1,598 @@
 package com.espacogeek.geek.repositories.impl;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.time.temporal.Temporal;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedHashSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.HashMap;
-import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Repository;
 
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
 import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SeasonModel;
+import com.espacogeek.geek.models.TypeReferenceModel;
+import com.espacogeek.geek.exception.GenericException;
 import com.espacogeek.geek.repositories.MediaRepositoryCustom;
+import com.espacogeek.geek.types.MediaCursor;
 import com.espacogeek.geek.utils.Utils;
 
-import jakarta.persistence.Column;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
-import jakarta.persistence.ManyToOne;
-import jakarta.persistence.OneToMany;
 import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.Table;
-import jakarta.persistence.TypedQuery;
 
 @Repository
 public class MediaRepositoryCustomImpl implements MediaRepositoryCustom {
+    private static final String MEDIAS_BY_IDS = "SELECT m FROM MediaModel m LEFT JOIN FETCH m.mediaCategory WHERE m.id IN :ids";
+
+    // associations of projected medias, one query per association for the whole page
+    private static final String CATEGORIES_BY_MEDIA_IDS = "SELECT m.id, c FROM MediaModel m JOIN m.mediaCategory c WHERE m.id IN :ids";
+    private static final String GENRES_BY_MEDIA_IDS = "SELECT m.id, g FROM MediaModel m JOIN m.genre g WHERE m.id IN :ids";
+    private static final String TITLES_BY_MEDIA_IDS = "SELECT a.media.id, a.id, a.name FROM AlternativeTitleModel a WHERE a.media.id IN :ids";
+    private static final String REFERENCES_BY_MEDIA_IDS = "SELECT e.media.id, e.id, e.reference, t FROM ExternalReferenceModel e JOIN e.typeReference t WHERE e.media.id IN :ids";
+    private static final String SEASONS_BY_MEDIA_IDS = "SELECT s.media.id, s.id, s.name, s.airDate, s.endAirDate, s.about, s.cover, s.seasonNumber, s.episodeCount "
+            + "FROM SeasonModel s WHERE s.media.id IN :ids ORDER BY s.seasonNumber";
+
+    // fetch joins of the collections of a media, in the order they are fetched
+    private static final Map<String, String> FETCH_JOINS = new LinkedHashMap<>();
+    static {
+        FETCH_JOINS.put("externalReference", "LEFT JOIN FETCH m.externalReference e LEFT JOIN FETCH e.typeReference");
+        FETCH_JOINS.put("genre", "LEFT JOIN FETCH m.genre");
+        FETCH_JOINS.put("alternativeTitles", "LEFT JOIN FETCH m.alternativeTitles");
+        FETCH_JOINS.put("season", "LEFT JOIN FETCH m.season");
+        FETCH_JOINS.put("company", "LEFT JOIN FETCH m.company");
+        FETCH_JOINS.put("people", "LEFT JOIN FETCH m.people");
+    }
+
+    // multiplies the relevance of a match, 1 without popularity and growing slowly with it
+    private static final String POPULARITY_BOOST = "(1 + LN(1 + COALESCE(m.popularity, 0)) / 10)";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    private MediaMetamodel metamodel;
+
+    // SQL built once per query shape, the same text lets the driver reuse its prepared statements
+    private final Map<Object, SqlTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * SQL of a query shape and the mapper of its rows, <code>null</code> when the rows aren't medias.
+     */
+    private record SqlTemplate(String sql, MediaRowMapper mapper) {
+    }
+
+    private record SearchShape(List<String> fields, boolean fullText, boolean name, boolean alternativeTitle, boolean category, boolean ranked) {
+    }
+
+    private record KeysetShape(boolean fullText, boolean name, boolean after, boolean category) {
+    }
+
+    private record CountShape(boolean fullText, boolean name) {
+    }
+
+    private record IdsShape(List<String> fields) {
+    }
+
+    private record GroupedShape(boolean fullText, boolean alternativeTitle) {
+    }
+
+    @PostConstruct
+    private void init() {
+        this.metamodel = MediaMetamodel.of(entityManager.getMetamodel());
+    }
+
     /**
      * @see MediaRepositoryCustom#findMediaByNameOrAlternativeTitleAndMediaCategory(String,
      *      String, Integer, Map)
      */
     @Override
-    public Page<MediaModel> findMediaByNameOrAlternativeTitleAndMediaCategory(
+    public Slice<MediaModel> findMediaByNameOrAlternativeTitleAndMediaCategory(
             String name,
             String alternativeTitle,
             Integer category,
             Map<String, List<String>> requestedFields,
             @PageableDefault(size = 10, page = 0) Pageable pageable) {
 
-        Class<MediaModel> entityClass = MediaModel.class;
-        String table = getTableName(entityClass);
-        String alias = "m";
+        String search = name != null && !name.isBlank() ? name : alternativeTitle;
+        boolean fullText = MediaRepositoryCustom.isFullTextSearch(search);
+        String namePrefix = fullText ? null : MediaRepositoryCustom.toSearchKeyPrefix(name);
+        String alternativeTitlePrefix = fullText || metamodel.alternativeTitlesTable == null ? null : MediaRepositoryCustom.toSearchKeyPrefix(alternativeTitle);
+        boolean byName = namePrefix != null;
+        boolean byAlternativeTitle = alternativeTitlePrefix != null;
+        String searchKey = Utils.toSearchKey(search);
+        // only punctuation typed, nothing can match
+        if (searchKey == null && search != null && !search.isBlank()) return new SliceImpl<>(List.of(), pageable, false);
+        boolean ranked = fullText || byName || byAlternativeTitle;
+
+        var shape = new SearchShape(selectedFields(requestedFields), fullText, byName, byAlternativeTitle, category != null, ranked);
+        var template = templates.computeIfAbsent(shape, (key) -> buildSearch((SearchShape) key));
+
+        jakarta.persistence.Query q = entityManager.createNativeQuery(template.sql());
+        if (fullText) q.setParameter("query", MediaRepositoryCustom.toFullTextPhrase(search));
+        if (byName) q.setParameter("name", namePrefix);
+        if (byAlternativeTitle) q.setParameter("altTitle", alternativeTitlePrefix);
+        if (category != null) q.setParameter("category", category);
+        if (ranked) bindRank(q, searchKey);
+        q.setFirstResult((int) pageable.getOffset());
+        q.setMaxResults(pageable.getPageSize() + 1); // one more row tells whether there is a next page
 
-        // 1) Determine selected scalar fields (always include id and name)
-        Set<String> fieldNames = new LinkedHashSet<>();
-        fieldNames.add("id");
-        if (hasField(entityClass, "name")) fieldNames.add("name");
+        @SuppressWarnings("unchecked")
+        List<Object> rows = q.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        if (hasNext) rows = rows.subList(0, pageable.getPageSize());
 
-        if (requestedFields != null) {
-            requestedFields.forEach((field, subFields) -> {
-                // include only scalar fields belonging to MediaModel (ignore associations)
-                if (isScalarField(entityClass, field)) fieldNames.add(field);
-            });
+        // Map to entities
+        var mapper = template.mapper();
+        List<MediaModel> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(mapper.map(row));
         }
+        fetchAssociations(result, requestedFields);
 
-        // Ensure selected fields exist
-        fieldNames.removeIf(f -> !hasField(entityClass, f));
+        return new SliceImpl<>(result, pageable, hasNext);
+    }
 
-        // Resolve column list with aliases matching Java field names
-        List<String> selectCols = new ArrayList<>();
-        for (String f : fieldNames) {
-            Field fld = getField(entityClass, f);
-            String col = getColumnName(fld);
-            selectCols.add(alias + "." + col + " AS " + f);
+    /**
+     * The scalar fields requested, always with id and name, in declaration order so the same fields
+     * requested in another order share the SQL.
+     */
+    private List<String> selectedFields(Map<String, List<String>> requestedFields) {
+        List<String> fields = new ArrayList<>();
+        for (String field : metamodel.scalars.keySet()) {
+            if (field.equals("id") || field.equals("name") || (requestedFields != null && requestedFields.containsKey(field))) {
+                fields.add(field);
+            }
         }
 
-        // Build FROM and JOINs
-        StringBuilder from = new StringBuilder()
-                .append(" FROM ").append(table).append(" ").append(alias).append(" ");
-
-        // Try to resolve alternativeTitles join metadata via reflection
-        JoinInfo altJoin = resolveAlternativeTitlesJoin(entityClass);
-        if (altJoin != null) {
-            from.append(" LEFT JOIN ").append(altJoin.table).append(" at")
-                .append(" ON at.").append(altJoin.fkToMediaColumn)
-                .append(" = ").append(alias).append(".").append(altJoin.mediaIdColumn)
-                .append(" ");
-        }
+        return List.copyOf(fields);
+    }
 
-        // Build WHERE
-        List<String> where = new ArrayList<>();
-        Map<String, Object> params = new HashMap<>();
+    private SqlTemplate buildSearch(SearchShape shape) {
+        String alias = "m";
+        String id = alias + "." + metamodel.idColumn;
 
-        // name filter
-        if (name != null && !name.isBlank() && hasField(entityClass, "name")) {
-            String nameCol = getColumnName(getField(entityClass, "name"));
-            where.add("LOWER(" + alias + "." + nameCol + ") LIKE :name");
-            params.put("name", "%" + name.toLowerCase(Locale.ROOT) + "%");
+        List<MediaMetamodel.ScalarColumn> columns = new ArrayList<>();
+        List<String> selectCols = new ArrayList<>();
+        for (String field : shape.fields()) {
+            var column = metamodel.scalars.get(field);
+            columns.add(column);
+            selectCols.add(alias + "." + column.name() + " AS " + field);
         }
 
-        // category filter (resolve FK column from @JoinColumn on mediaCategory if possible)
-        if (category != null) {
-            String catFkColumn = getJoinColumnName(entityClass, "mediaCategory", "media_category_id");
-            where.add(alias + "." + catFkColumn + " = :category");
-            params.put("category", category);
+        StringBuilder from = new StringBuilder(" FROM ").append(metamodel.table).append(" ").append(alias).append(" ");
+        List<String> where = new ArrayList<>();
+        String orderBy = " ORDER BY " + id + " ASC";
+
+        if (shape.fullText()) {
+            // name and alternative titles matched by the FULLTEXT indexes, one row per media
+            from.append(" JOIN (").append(MediaRepositoryCustom.fullTextHits(shape.category() ? "= :category" : null))
+                    .append(") s ON s.id = ").append(id).append(" ");
+            orderBy = " ORDER BY " + rank() + " DESC, s.score * " + POPULARITY_BOOST + " DESC, " + id + " ASC";
+        } else {
+            List<String> nameFilters = new ArrayList<>();
+            if (shape.name()) {
+                nameFilters.add(alias + "." + metamodel.scalars.get("searchKey").name() + " LIKE :name");
+            }
+            if (shape.alternativeTitle()) {
+                // EXISTS instead of a join, one row per media so the ranking can order without DISTINCT
+                nameFilters.add("EXISTS (SELECT 1 FROM " + metamodel.alternativeTitlesTable + " at WHERE at."
+                        + metamodel.alternativeTitlesMediaColumn + " = " + id + " AND at."
+                        + metamodel.alternativeTitlesSearchKeyColumn + " LIKE :altTitle)");
+            }
+            if (!nameFilters.isEmpty()) where.add("(" + String.join(" OR ", nameFilters) + ")");
+            if (shape.ranked()) orderBy = " ORDER BY " + rank() + " DESC, COALESCE(" + alias + ".popularity, 0) DESC, " + id + " ASC";
         }
 
-        // alternativeTitle filter (only if join resolved)
-        if (alternativeTitle != null && !alternativeTitle.isBlank() && altJoin != null && altJoin.altNameColumn != null) {
-            where.add("LOWER(at." + altJoin.altNameColumn + ") LIKE :altTitle");
-            params.put("altTitle", "%" + alternativeTitle.toLowerCase(Locale.ROOT) + "%");
-        }
+        if (shape.category()) where.add(alias + "." + metamodel.categoryColumn + " = :category");
 
         String whereSql = where.isEmpty() ? "" : (" WHERE " + String.join(" AND ", where));
+        String sql = "SELECT " + String.join(", ", selectCols) + from + whereSql + orderBy;
 
-        // Count query (DISTINCT by id)
-        String idColumn = altJoin != null ? altJoin.mediaIdColumn : getIdColumnName(entityClass);
-        String countSql = "SELECT COUNT(DISTINCT " + alias + "." + idColumn + ") " + from + whereSql;
+        return new SqlTemplate(sql, MediaRowMapper.of(columns));
+    }
 
-        jakarta.persistence.Query countQuery = entityManager.createNativeQuery(countSql)
-                .unwrap(jakarta.persistence.Query.class);
-        if (params != null) {
-            for (Map.Entry<String, Object> e : params.entrySet()) {
-                countQuery.setParameter(e.getKey(), e.getValue());
+    /**
+     * Rank of the media <code>m</code> for the searched key, best first: exact name, exact alternative
+     * title, name starting with the key, name containing the key as whole words, any other match. The
+     * candidates are ranked in bulk by the database before the page is cut. Bound by
+     * {@link #bindRank(jakarta.persistence.Query, String)}.
+     */
+    private String rank() {
+        String searchKey = "m." + metamodel.scalars.get("searchKey").name();
+        String exactTitle = metamodel.alternativeTitlesTable == null ? "" : " WHEN EXISTS (SELECT 1 FROM " + metamodel.alternativeTitlesTable
+                + " r WHERE r." + metamodel.alternativeTitlesMediaColumn + " = m." + metamodel.idColumn
+                + " AND r." + metamodel.alternativeTitlesSearchKeyColumn + " = :key) THEN 4";
+
+        return "(CASE WHEN " + searchKey + " = :key THEN 5" + exactTitle
+                + " WHEN " + searchKey + " LIKE :prefix THEN 3"
+                + " WHEN CONCAT(' ', " + searchKey + ", ' ') LIKE :token THEN 2"
+                + " ELSE 1 END)";
+    }
+
+    private static void bindRank(jakarta.persistence.Query q, String searchKey) {
+        q.setParameter("key", searchKey);
+        q.setParameter("prefix", searchKey + "%");
+        q.setParameter("token", "% " + searchKey + " %");
+    }
+
+    /**
+     * @see MediaRepositoryCustom#countMediaByNameAndMediaCategory(String, Integer, int)
+     */
+    @Override
+    public long countMediaByNameAndMediaCategory(String name, Integer category, int limit) {
+        boolean fullText = MediaRepositoryCustom.isFullTextSearch(name);
+        String prefix = fullText ? null : MediaRepositoryCustom.toSearchKeyPrefix(name);
+        boolean byName = prefix != null;
+        if (!fullText && !byName && name != null && !name.isBlank()) return 0;
+        var template = templates.computeIfAbsent(new CountShape(fullText, byName), (key) -> buildCount((CountShape) key));
+
+        jakarta.persistence.Query q = entityManager.createNativeQuery(template.sql());
+        q.setParameter("category", category);
+        if (fullText) q.setParameter("query", MediaRepositoryCustom.toFullTextPhrase(name));
+        if (byName) q.setParameter("name", prefix);
+        q.setParameter("limit", limit);
+
+        return ((Number) q.getSingleResult()).longValue();
+    }
+
+    private SqlTemplate buildCount(CountShape shape) {
+        String sql = "SELECT m.id_media FROM medias m ";
+        if (shape.fullText()) {
+            sql += "JOIN (" + MediaRepositoryCustom.fullTextHits("= :category") + ") s ON s.id = m.id_media WHERE m.id_category = :category";
+        } else {
+            sql += "WHERE m.id_category = :category";
+            if (shape.name()) {
+                sql += " AND (m.search_key LIKE :name OR EXISTS (SELECT 1 FROM alternative_titles t "
+                        + "WHERE t.id_media = m.id_media AND t.search_key LIKE :name))";
             }
         }
-        Number total = ((Number) countQuery.getSingleResult());
 
-        long totalElements = total == null ? 0L : total.longValue();
+        return new SqlTemplate("SELECT COUNT(*) FROM (" + sql + " LIMIT :limit) c", null);
+    }
 
-        if (totalElements == 0L) {
-            return new PageImpl<>(List.of(), pageable, 0);
+    /**
+     * @see MediaRepositoryCustom#findMediaByNameAfter(String, Integer, MediaCursor, int, Map)
+     */
+    @Override
+    public Keyset findMediaByNameAfter(String name, Integer category, MediaCursor after, int first, Map<String, List<String>> requestedFields) {
+        boolean fullText = MediaRepositoryCustom.isFullTextSearch(name);
+        String searchKey = Utils.toSearchKey(name);
+        if (searchKey == null && name != null && !name.isBlank()) return new Keyset(List.of(), null, false);
+        String prefix = fullText ? null : MediaRepositoryCustom.toSearchKeyPrefix(name);
+        boolean byName = prefix != null;
+        var shape = new KeysetShape(fullText, byName, after != null, category != null);
+        var template = templates.computeIfAbsent(shape, (key) -> buildKeyset((KeysetShape) key));
+
+        jakarta.persistence.Query q = entityManager.createNativeQuery(template.sql());
+        if (category != null) q.setParameter("category", category);
+        boolean ranked = fullText || byName;
+        if (fullText) q.setParameter("query", MediaRepositoryCustom.toFullTextPhrase(name));
+        if (byName) q.setParameter("name", prefix);
+        if (ranked) bindRank(q, searchKey);
+        if (after != null) {
+            if (ranked) {
+                var position = parseRelevance(after);
+                q.setParameter("afterRank", position[0]);
+                q.setParameter("afterRelevance", position[1]);
+            } else {
+                q.setParameter("afterKey", after.sortKey());
+            }
+            q.setParameter("id", after.id());
         }
+        q.setMaxResults(first + 1); // one more row tells whether there is a next page
 
-        // Main SELECT
-        String sql = "SELECT " + String.join(", ", selectCols) + from + whereSql
-                + " ORDER BY " + alias + "." + idColumn + " ASC";
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = q.getResultList();
+        boolean hasNext = rows.size() > first;
+        if (hasNext) rows = rows.subList(0, first);
+        if (rows.isEmpty()) return new Keyset(List.of(), null, false);
+
+        List<Integer> ids = rows.stream().map((row) -> ((Number) row[0]).intValue()).toList();
+        Map<Integer, MediaModel> medias = new HashMap<>();
+        findMediaByIdIn(ids, requestedFields).forEach((media) -> medias.put(media.getId(), media));
+
+        Object[] last = rows.getLast();
+        String sortKey = ranked ? ((Number) last[1]).intValue() + ":" + ((Number) last[2]).doubleValue() : (String) last[1];
+        MediaCursor endCursor = new MediaCursor(sortKey, ((Number) last[0]).intValue());
+        List<MediaModel> content = ids.stream().map(medias::get).filter((media) -> media != null).toList();
+
+        return new Keyset(content, endCursor, hasNext);
+    }
 
-        jakarta.persistence.Query q = entityManager.createNativeQuery(sql);
-        // bind params
-        for (Map.Entry<String, Object> e : params.entrySet()) {
-            q.setParameter(e.getKey(), e.getValue());
+    /**
+     * @see MediaRepositoryCustom#findMediaByNameGroupedByCategory(String, List, int, Map)
+     */
+    @Override
+    public Map<Integer, List<MediaModel>> findMediaByNameGroupedByCategory(String name, List<Integer> categories, int limit, Map<String, List<String>> requestedFields) {
+        String searchKey = Utils.toSearchKey(name);
+        if (searchKey == null || categories.isEmpty() || limit <= 0) return Map.of();
+        boolean fullText = MediaRepositoryCustom.isFullTextSearch(name);
+        var shape = new GroupedShape(fullText, metamodel.alternativeTitlesTable != null);
+        var template = templates.computeIfAbsent(shape, (key) -> buildGrouped((GroupedShape) key));
+
+        jakarta.persistence.Query q = entityManager.createNativeQuery(template.sql());
+        if (fullText) {
+            q.setParameter("query", MediaRepositoryCustom.toFullTextPhrase(name));
+        } else {
+            q.setParameter("name", searchKey + "%");
         }
-        q.setFirstResult((int) pageable.getOffset());
-        q.setMaxResults(pageable.getPageSize());
+        q.setParameter("categories", categories);
+        q.setParameter("limit", limit);
+        bindRank(q, searchKey);
 
         @SuppressWarnings("unchecked")
-        List<Object> rows = q.getResultList();
+        List<Object[]> rows = q.getResultList();
+        if (rows.isEmpty()) return Map.of();
 
-        // Map to entities
-        List<MediaModel> result = new ArrayList<>(rows.size());
-        List<String> orderedFields = new ArrayList<>(fieldNames); // matches selectCols order
+        List<Integer> ids = rows.stream().map((row) -> ((Number) row[0]).intValue()).toList();
+        Map<Integer, MediaModel> medias = new HashMap<>();
+        findMediaByIdIn(ids, requestedFields).forEach((media) -> medias.put(media.getId(), media));
+
+        Map<Integer, List<MediaModel>> groups = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            var media = medias.get(((Number) row[0]).intValue());
+            if (media != null) groups.computeIfAbsent(((Number) row[1]).intValue(), (category) -> new ArrayList<>()).add(media);
+        }
+
+        return groups;
+    }
+
+    private SqlTemplate buildGrouped(GroupedShape shape) {
+        String id = "m." + metamodel.idColumn;
+        String category = "m." + metamodel.categoryColumn;
+
+        StringBuilder from = new StringBuilder(" FROM ").append(metamodel.table).append(" m ");
+        String where = " WHERE " + category + " IN (:categories)";
+        String orderBy;
+        if (shape.fullText()) {
+            from.append(" JOIN (").append(MediaRepositoryCustom.fullTextHits("IN (:categories)")).append(") s ON s.id = ").append(id).append(" ");
+            orderBy = rank() + " DESC, s.score * " + POPULARITY_BOOST + " DESC, " + id + " ASC";
+        } else {
+            String nameFilter = "m." + metamodel.scalars.get("searchKey").name() + " LIKE :name";
+            if (shape.alternativeTitle()) {
+                nameFilter += " OR EXISTS (SELECT 1 FROM " + metamodel.alternativeTitlesTable + " at WHERE at."
+                        + metamodel.alternativeTitlesMediaColumn + " = " + id + " AND at."
+                        + metamodel.alternativeTitlesSearchKeyColumn + " LIKE :name)";
+            }
+            where += " AND (" + nameFilter + ")";
+            orderBy = rank() + " DESC, COALESCE(m.popularity, 0) DESC, " + id + " ASC";
+        }
+
+        // every match is numbered within its category, the top of each category is kept
+        String ranked = "SELECT " + id + " AS id, " + category + " AS category, ROW_NUMBER() OVER (PARTITION BY "
+                + category + " ORDER BY " + orderBy + ") AS row_position" + from + where;
+        String sql = "SELECT g.id, g.category FROM (" + ranked + ") g WHERE g.row_position <= :limit ORDER BY g.category, g.row_position";
+
+        return new SqlTemplate(sql, null);
+    }
+
+    /**
+     * @see MediaRepositoryCustom#findMediaByIdIn(List, Map)
+     */
+    @Override
+    public List<MediaModel> findMediaByIdIn(List<Integer> ids, Map<String, List<String>> requestedFields) {
+        if (ids.isEmpty()) return List.of();
+        if (requestedFields == null) {
+            return entityManager.createQuery(MEDIAS_BY_IDS, MediaModel.class).setParameter("ids", ids).getResultList();
+        }
+
+        var template = templates.computeIfAbsent(new IdsShape(selectedFields(requestedFields)), (key) -> buildIds((IdsShape) key));
+
+        @SuppressWarnings("unchecked")
+        List<Object> rows = entityManager.createNativeQuery(template.sql()).setParameter("ids", ids).getResultList();
+        List<MediaModel> medias = new ArrayList<>(rows.size());
         for (Object row : rows) {
-            Object[] cols = (orderedFields.size() == 1) ? new Object[]{ row } : (Object[]) row;
-            MediaModel entity = mapRowToEntity(entityClass, orderedFields, cols);
-            result.add(entity);
+            medias.add(template.mapper().map(row));
         }
+        fetchAssociations(medias, requestedFields);
 
-        return new PageImpl<>(result, pageable, totalElements);
+        return medias;
     }
 
-    // ---- Reflection helpers ----
+    private SqlTemplate buildIds(IdsShape shape) {
+        List<MediaMetamodel.ScalarColumn> columns = new ArrayList<>();
+        List<String> selectCols = new ArrayList<>();
+        for (String field : shape.fields()) {
+            var column = metamodel.scalars.get(field);
+            columns.add(column);
+            selectCols.add("m." + column.name() + " AS " + field);
+        }
 
-    private static boolean hasField(Class<?> type, String fieldName) {
-        return getField(type, fieldName) != null;
+        String sql = "SELECT " + String.join(", ", selectCols) + " FROM " + metamodel.table + " m WHERE m." + metamodel.idColumn + " IN (:ids)";
+        return new SqlTemplate(sql, MediaRowMapper.of(columns));
     }
 
-    private static Field getField(Class<?> type, String fieldName) {
-        Class<?> t = type;
-        while (t != null && t != Object.class) {
-            try {
-                Field f = t.getDeclaredField(fieldName);
-                f.setAccessible(true);
-                return f;
-            } catch (NoSuchFieldException ignored) {}
-            t = t.getSuperclass();
+    /**
+     * Sets the requested associations on the projected medias, with one query per association for all of
+     * them. The child rows are read as scalars, so their back reference to the media isn't loaded.
+     */
+    private void fetchAssociations(List<MediaModel> medias, Map<String, List<String>> requestedFields) {
+        if (medias.isEmpty() || requestedFields == null) return;
+
+        List<Integer> ids = medias.stream().map(MediaModel::getId).distinct().toList();
+
+        if (requestedFields.containsKey("mediaCategory")) {
+            var categories = findCategoriesByMediaIdIn(ids);
+            medias.forEach((media) -> media.setMediaCategory(categories.get(media.getId())));
+        }
+        if (requestedFields.containsKey("genre")) {
+            var genres = findGenresByMediaIdIn(ids);
+            medias.forEach((media) -> media.setGenre(genres.get(media.getId())));
+        }
+        if (requestedFields.containsKey("alternativeTitles")) {
+            var titles = findAlternativeTitlesByMediaIdIn(ids);
+            medias.forEach((media) -> media.setAlternativeTitles(titles.get(media.getId())));
+        }
+        if (requestedFields.containsKey("externalReference")) {
+            var references = findExternalReferencesByMediaIdIn(ids);
+            medias.forEach((media) -> media.setExternalReference(references.get(media.getId())));
+        }
+        if (requestedFields.containsKey("season")) {
+            var seasons = findSeasonsByMediaIdIn(ids);
+            medias.forEach((media) -> media.setSeason(seasons.get(media.getId())));
         }
-        return null;
     }
 
-    private static String getTableName(Class<?> entityClass) {
-        Table t = entityClass.getAnnotation(Table.class);
-        if (t != null && !t.name().isBlank()) return t.name();
-        // fallback: simple snake_case pluralization is project-specific; keep simple
-        return camelToSnake(entityClass.getSimpleName());
+    /**
+     * @see MediaRepositoryCustom#findByIdWithAssociations(Integer, Collection)
+     */
+    @Override
+    public Optional<MediaModel> findByIdWithAssociations(Integer id, Collection<String> associations) {
+        List<String> joins = FETCH_JOINS.entrySet().stream()
+                .filter((join) -> associations.contains(join.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+
+        String fetchCategory = "SELECT m FROM MediaModel m LEFT JOIN FETCH m.mediaCategory ";
+        String byId = " WHERE m.id = :id";
+        Optional<MediaModel> media = entityManager.createQuery(fetchCategory + (joins.isEmpty() ? "" : joins.getFirst()) + byId, MediaModel.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+        if (media.isEmpty()) return media;
+
+        for (String join : joins.subList(Math.min(1, joins.size()), joins.size())) {
+            entityManager.createQuery("SELECT m FROM MediaModel m " + join + byId, MediaModel.class).setParameter("id", id).getResultList();
+        }
+
+        return media;
     }
 
-    private static String getColumnName(Field field) {
-        if (field == null) return null;
-        Column c = field.getAnnotation(Column.class);
-        if (c != null && !c.name().isBlank()) return c.name();
-        // Fallback for @Id without @Column
-        if (field.isAnnotationPresent(Id.class)) return camelToSnake(field.getName());
-        return camelToSnake(field.getName());
+    /**
+     * @see MediaRepositoryCustom#findCategoriesByMediaIdIn(Collection)
+     */
+    @Override
+    public Map<Integer, MediaCategoryModel> findCategoriesByMediaIdIn(Collection<Integer> ids) {
+        Map<Integer, MediaCategoryModel> categories = new HashMap<>();
+        for (Object[] row : associationRows(CATEGORIES_BY_MEDIA_IDS, ids)) {
+            categories.put((Integer) row[0], (MediaCategoryModel) row[1]);
+        }
+
+        return categories;
     }
 
-    private static String getIdColumnName(Class<?> entityClass) {
-        for (Field f : entityClass.getDeclaredFields()) {
-            if (f.isAnnotationPresent(Id.class)) {
-                return getColumnName(f);
-            }
+    /**
+     * @see MediaRepositoryCustom#findGenresByMediaIdIn(Collection)
+     */
+    @Override
+    public Map<Integer, List<GenreModel>> findGenresByMediaIdIn(Collection<Integer> ids) {
+        Map<Integer, List<GenreModel>> genres = emptyLists(ids);
+        for (Object[] row : associationRows(GENRES_BY_MEDIA_IDS, ids)) {
+            genres.get((Integer) row[0]).add((GenreModel) row[1]);
         }
-        // naive fallback
-        return "id";
+
+        return genres;
     }
 
-    private static String getJoinColumnName(Class<?> entityClass, String fieldName, String defaultName) {
-        Field f = getField(entityClass, fieldName);
-        if (f != null) {
-            JoinColumn jc = f.getAnnotation(JoinColumn.class);
-            if (jc != null && !jc.name().isBlank()) return jc.name();
+    /**
+     * @see MediaRepositoryCustom#findAlternativeTitlesByMediaIdIn(Collection)
+     */
+    @Override
+    public Map<Integer, List<AlternativeTitleModel>> findAlternativeTitlesByMediaIdIn(Collection<Integer> ids) {
+        Map<Integer, List<AlternativeTitleModel>> titles = emptyLists(ids);
+        for (Object[] row : associationRows(TITLES_BY_MEDIA_IDS, ids)) {
+            titles.get((Integer) row[0]).add(new AlternativeTitleModel((Integer) row[1], (String) row[2], null));
         }
-        return defaultName;
+
+        return titles;
     }
 
-    private static boolean isScalarField(Class<?> entityClass, String fieldName) {
-        Field f = getField(entityClass, fieldName);
-        if (f == null) return false;
-        Class<?> t = f.getType();
-        if (f.isAnnotationPresent(ManyToOne.class) || f.isAnnotationPresent(OneToMany.class)) return false;
-        return t.isPrimitive()
-                || Number.class.isAssignableFrom(t)
-                || CharSequence.class.isAssignableFrom(t)
-                || Boolean.class.isAssignableFrom(t)
-                || java.util.Date.class.isAssignableFrom(t)
-                || java.time.temporal.Temporal.class.isAssignableFrom(t)
-                || java.time.LocalDate.class.isAssignableFrom(t)
-                || java.time.LocalDateTime.class.isAssignableFrom(t)
-                || java.time.OffsetDateTime.class.isAssignableFrom(t);
+    /**
+     * @see MediaRepositoryCustom#findExternalReferencesByMediaIdIn(Collection)
+     */
+    @Override
+    public Map<Integer, List<ExternalReferenceModel>> findExternalReferencesByMediaIdIn(Collection<Integer> ids) {
+        Map<Integer, List<ExternalReferenceModel>> references = emptyLists(ids);
+        for (Object[] row : associationRows(REFERENCES_BY_MEDIA_IDS, ids)) {
+            references.get((Integer) row[0]).add(new ExternalReferenceModel((Integer) row[1], (String) row[2], null, (TypeReferenceModel) row[3]));
+        }
+
+        return references;
     }
 
-    private static String camelToSnake(String s) {
-        StringBuilder out = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            char ch = s.charAt(i);
-            if (Character.isUpperCase(ch) && i > 0) out.append('_');
-            out.append(Character.toLowerCase(ch));
+    /**
+     * @see MediaRepositoryCustom#findSeasonsByMediaIdIn(Collection)
+     */
+    @Override
+    public Map<Integer, List<SeasonModel>> findSeasonsByMediaIdIn(Collection<Integer> ids) {
+        Map<Integer, List<SeasonModel>> seasons = emptyLists(ids);
+        for (Object[] row : associationRows(SEASONS_BY_MEDIA_IDS, ids)) {
+            seasons.get((Integer) row[0]).add(new SeasonModel((Integer) row[1], (String) row[2], (Date) row[3], (Date) row[4],
+                    (String) row[5], (String) row[6], (Integer) row[7], (Integer) row[8], null));
         }
-        return out.toString();
+
+        return seasons;
     }
 
-    private static class JoinInfo {
-        String table;
-        String fkToMediaColumn;
-        String mediaIdColumn;
-        String altNameColumn;
+    private static <T> Map<Integer, List<T>> emptyLists(Collection<Integer> ids) {
+        Map<Integer, List<T>> lists = new HashMap<>();
+        ids.forEach((id) -> lists.put(id, new ArrayList<>()));
+
+        return lists;
     }
 
-    // Try to find: alternativeTitles -> elementType table, FK back to media (join column), and 'name' column on element
-    private static JoinInfo resolveAlternativeTitlesJoin(Class<?> mediaClass) {
-        Field alt = getField(mediaClass, "alternativeTitles");
-        if (alt == null) return null;
-        try {
-            ParameterizedType pt = (ParameterizedType) alt.getGenericType();
-            Class<?> altType = (Class<?>) pt.getActualTypeArguments()[0];
-
-            JoinInfo ji = new JoinInfo();
-            ji.table = getTableName(altType);
-            ji.mediaIdColumn = getIdColumnName(mediaClass);
-
-            // Find ManyToOne back-ref to media
-            for (Field f : altType.getDeclaredFields()) {
-                if (f.isAnnotationPresent(ManyToOne.class) && f.getType().equals(mediaClass)) {
-                    JoinColumn jc = f.getAnnotation(JoinColumn.class);
-                    ji.fkToMediaColumn = (jc != null && !jc.name().isBlank()) ? jc.name() : camelToSnake(f.getName()) + "_id";
-                }
-                if ("name".equals(f.getName())) {
-                    ji.altNameColumn = getColumnName(f);
-                }
-            }
+    private List<Object[]> associationRows(String query, Collection<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
 
-            if (ji.table == null || ji.fkToMediaColumn == null) return null;
-            if (ji.altNameColumn == null) ji.altNameColumn = "name";
-            return ji;
-        } catch (Exception e) {
-            return null;
-        }
+        return entityManager.createQuery(query, Object[].class).setParameter("ids", ids).getResultList();
     }
 
-    private static MediaModel mapRowToEntity(Class<MediaModel> entityClass, List<String> fields, Object[] values) {
-        try {
-            MediaModel instance = entityClass.getDeclaredConstructor().newInstance();
-            for (int i = 0; i < fields.size(); i++) {
-                String fname = fields.get(i);
-                Object val = (i < values.length) ? values[i] : null;
-                Field f = getField(entityClass, fname);
-                if (f == null) continue;
-                Object converted = convertValue(val, f.getType());
-                try {
-                    f.setAccessible(true);
-                    f.set(instance, converted);
-                } catch (IllegalAccessException ignored) {}
+    private SqlTemplate buildKeyset(KeysetShape shape) {
+        List<String> where = new ArrayList<>();
+        if (shape.category()) where.add("m.id_category = :category");
+
+        if (shape.fullText() || shape.name()) {
+            // rank and relevance descending, ID ascending on ties, computed for every candidate before seeking,
+            // the relevance is the FULLTEXT score or, for short names, the popularity like the paged search
+            String from;
+            String relevance;
+            if (shape.fullText()) {
+                from = " FROM medias m JOIN (" + MediaRepositoryCustom.fullTextHits(shape.category() ? "= :category" : null) + ") s ON s.id = m.id_media";
+                relevance = "s.score * " + POPULARITY_BOOST;
+            } else {
+                from = " FROM medias m";
+                relevance = "COALESCE(m.popularity, 0)";
+                where.add("(m.search_key LIKE :name OR EXISTS (SELECT 1 FROM alternative_titles t "
+                        + "WHERE t.id_media = m.id_media AND t.search_key LIKE :name))");
             }
-            return instance;
-        } catch (Exception e) {
-            // Fallback when mapping fails
-            return null;
-        }
-    }
 
-    private static Object convertValue(Object val, Class<?> targetType) {
-        if (val == null) return null;
-        if (targetType.isInstance(val)) return val;
+            String ranked = "SELECT m.id_media AS id, " + rank() + " AS rank_score, " + relevance + " AS relevance" + from
+                    + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where));
+            String seek = !shape.after() ? "" : " WHERE (r.rank_score < :afterRank OR (r.rank_score = :afterRank AND "
+                    + "(r.relevance < :afterRelevance OR (r.relevance = :afterRelevance AND r.id > :id))))";
 
-        if (targetType == Integer.class || targetType == int.class) {
-            if (val instanceof Number n) return n.intValue();
-            if (val instanceof String s) return Integer.parseInt(s);
-        }
-        if (targetType == Long.class || targetType == long.class) {
-            if (val instanceof Number n) return n.longValue();
-            if (val instanceof String s) return Long.parseLong(s);
-        }
-        if (targetType == Double.class || targetType == double.class) {
-            if (val instanceof Number n) return n.doubleValue();
-            if (val instanceof String s) return Double.parseDouble(s);
-        }
-        if (targetType == Float.class || targetType == float.class) {
-            if (val instanceof Number n) return n.floatValue();
-            if (val instanceof String s) return Float.parseFloat(s);
-        }
-        if (targetType == BigInteger.class && val instanceof Number n) {
-            return BigInteger.valueOf(n.longValue());
+            return new SqlTemplate("SELECT r.id, r.rank_score, r.relevance FROM (" + ranked + ") r" + seek
+                    + " ORDER BY r.rank_score DESC, r.relevance DESC, r.id ASC", null);
         }
-        if (targetType == BigDecimal.class && val instanceof Number n) {
-            return BigDecimal.valueOf(n.doubleValue());
-        }
-        if (CharSequence.class.isAssignableFrom(targetType)) {
-            return String.valueOf(val);
-        }
-        // Simple temporal handling (leave to JPA/JDBC types, otherwise best-effort)
-        if (Temporal.class.isAssignableFrom(targetType)) {
-            return val;
+
+        where.add("m.name_media IS NOT NULL");
+        if (shape.after()) where.add("(m.name_media, m.id_media) > (:afterKey, :id)");
+
+        return new SqlTemplate("SELECT m.id_media, m.name_media FROM medias m WHERE " + String.join(" AND ", where)
+                + " ORDER BY m.name_media ASC, m.id_media ASC", null);
+    }
+
+    /**
+     * Reads the rank and relevance of a cursor written by a search by name, <code>rank:relevance</code>.
+     */
+    private static Object[] parseRelevance(MediaCursor cursor) {
+        var separator = cursor.sortKey().indexOf(':');
+        try {
+            if (separator < 0) throw new NumberFormatException();
+            return new Object[] { Integer.parseInt(cursor.sortKey().substring(0, separator)), Double.parseDouble(cursor.sortKey().substring(separator + 1)) };
+        } catch (NumberFormatException e) {
+            throw new GenericException("Invalid cursor"); // cursor of a browse ordered by name
         }
-        return null;
     }
 }
@@ -0,0 +1,49 @@
+package com.espacogeek.geek.repositories.impl;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.espacogeek.geek.models.MediaModel;
+
+/**
+ * Maps a row of a projected native query to a {@link MediaModel}. One mapper is generated per selected field
+ * set, binding each column index to the setter of its field.
+ */
+@FunctionalInterface
+interface MediaRowMapper {
+    /**
+     * @param row the row returned by the JPA query, an <code>Object[]</code> or the value itself when only
+     *            one column is selected.
+     * @return the media with the selected fields.
+     */
+    MediaModel map(Object row);
+
+    /**
+     * Generates the mapper of the columns, in the order they are selected.
+     *
+     * @param columns the selected columns.
+     * @return the mapper.
+     */
+    @SuppressWarnings("unchecked")
+    static MediaRowMapper of(List<MediaMetamodel.ScalarColumn> columns) {
+        BiConsumer<MediaModel, Object>[] setters = columns.stream().map(MediaMetamodel.ScalarColumn::setter).toArray(BiConsumer[]::new);
+
+        if (setters.length == 1) {
+            var setter = setters[0];
+            return (row) -> {
+                var media = new MediaModel();
+                setter.accept(media, row);
+                return media;
+            };
+        }
+
+        return (row) -> {
+            var values = (Object[]) row;
+            var media = new MediaModel();
+            for (int i = 0; i < setters.length; i++) {
+                setters[i].accept(media, values[i]);
+            }
+            return media;
+        };
+    }
+}
@@ -15,4 +15,12 @@ public interface ApiKeyService {
     Optional<ApiKeyModel> findById(Integer id);
 
     Optional<ApiKeyModel> save(ApiKeyModel apiKeyModel);
+
+    /**
+     * Get api key by id provided locking its row until the end of the current transaction.
+     * <p>
+     * Must be called inside a transaction.
+     * @param id apikey
+     */
+    Optional<ApiKeyModel> findByIdForUpdate(Integer id);
 }
@@ -1,7 +1,9 @@
 package com.espacogeek.geek.services;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import com.espacogeek.geek.models.ExternalReferenceModel;
 import com.espacogeek.geek.models.MediaModel;
@@ -52,4 +54,22 @@ public interface ExternalReferenceService {
      * @return ExternalReferenceModel list of <code>ExternalReferenceModel</code> found.
      */
     Optional<ExternalReferenceModel> findByReferenceAndType(String reference, TypeReferenceModel typeReference);
+
+    /**
+     * Find all by references and Type Reference in one query.
+     *
+     * @param references values of ExternalReferences.
+     * @param typeReference the Type Reference to find.
+     * @return list of <code>ExternalReferenceModel</code> found, with their medias loaded.
+     */
+    List<ExternalReferenceModel> findAllByReferencesAndType(Collection<String> references, TypeReferenceModel typeReference);
+
+    /**
+     * Find which references already exist, in one query.
+     *
+     * @param references values of ExternalReferences.
+     * @param typeReference the Type Reference to find.
+     * @return the references provided that already exist in database.
+     */
+    Set<String> findExistingReferences(Collection<String> references, TypeReferenceModel typeReference);
 }
@@ -0,0 +1,39 @@
+package com.espacogeek.geek.services;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Interface for the FederatedSearchService, which searches the provider of a category (TMDB for series,
+ * IGDB for games and visual novels) alongside the database.
+ */
+public interface FederatedSearchService {
+    /**
+     * Runs the database search while the provider is searched concurrently. The provider results are
+     * deduplicated by external reference and the unseen ones are saved in background.
+     * <p>
+     * When the provider answers and its new medias are saved before the deadline, the database search runs
+     * again so the results include them. Otherwise the database results are returned right away and the
+     * new medias are found by the next searches.
+     *
+     * @param name        The name searched.
+     * @param category    The ID of the media category searched.
+     * @param localSearch The database search.
+     * @param <T>         The type of the results.
+     * @return the results of the database search.
+     */
+    <T> T search(String name, Integer category, Supplier<T> localSearch);
+
+    /**
+     * Like {@link #search(String, Integer, Supplier)} for several categories at once: the providers of every
+     * category are searched concurrently under one deadline, and the database search runs again once if any
+     * of them saved new medias in time.
+     *
+     * @param name        The name searched.
+     * @param categories  The IDs of the media categories searched.
+     * @param localSearch The database search of all the categories.
+     * @param <T>         The type of the results.
+     * @return the results of the database search.
+     */
+    <T> T search(String name, Collection<Integer> categories, Supplier<T> localSearch);
+}
@@ -0,0 +1,48 @@
+package com.espacogeek.geek.services;
+
+import java.util.List;
+import java.util.Map;
+
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SeasonModel;
+
+/**
+ * Interface for the MediaAssociationService, which loads an association of many medias at once. The medias
+ * whose association is already loaded are answered without reading the database, the others with one
+ * query for all of them.
+ */
+public interface MediaAssociationService {
+    /**
+     * @param medias The medias.
+     * @return the category of each media.
+     */
+    Map<MediaModel, MediaCategoryModel> findCategories(List<MediaModel> medias);
+
+    /**
+     * @param medias The medias.
+     * @return the genres of each media.
+     */
+    Map<MediaModel, List<GenreModel>> findGenres(List<MediaModel> medias);
+
+    /**
+     * @param medias The medias.
+     * @return the alternative titles of each media.
+     */
+    Map<MediaModel, List<AlternativeTitleModel>> findAlternativeTitles(List<MediaModel> medias);
+
+    /**
+     * @param medias The medias.
+     * @return the external references of each media.
+     */
+    Map<MediaModel, List<ExternalReferenceModel>> findExternalReferences(List<MediaModel> medias);
+
+    /**
+     * @param medias The medias.
+     * @return the seasons of each media.
+     */
+    Map<MediaModel, List<SeasonModel>> findSeasons(List<MediaModel> medias);
+}
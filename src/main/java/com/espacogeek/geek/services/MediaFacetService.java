@@ -0,0 +1,38 @@
+package com.espacogeek.geek.services;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.espacogeek.geek.types.Facets;
+import com.espacogeek.geek.types.MediaFilter;
+
+/**
+ * Interface for the MediaFacetService, which filters and counts the medias by category, genre and year from
+ * memory.
+ */
+public interface MediaFacetService {
+    /**
+     * Finds the IDs of the medias matching the filter, in ID order.
+     *
+     * @param filter  The values of each facet, a facet without values doesn't filter.
+     * @param afterId The ID of the last media read, <code>0</code> for the first page.
+     * @param limit   The max number of IDs.
+     * @return A list of IDs greater than <code>afterId</code>.
+     */
+    List<Integer> findIds(MediaFilter filter, int afterId, int limit);
+
+    /**
+     * Counts the medias matching the filter per value of each facet, see {@link Facets}.
+     *
+     * @param filter The values of each facet, a facet without values doesn't filter.
+     * @return the counts of the values with at least one media.
+     */
+    Facets count(MediaFilter filter);
+
+    /**
+     * Schedules the facets of the medias to be updated, after they or their seasons were saved or removed.
+     *
+     * @param ids The IDs of the medias.
+     */
+    void refresh(Collection<Integer> ids);
+}
@@ -0,0 +1,38 @@
+package com.espacogeek.geek.services;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Interface for the MediaIndexService, which keeps a full text index of the media catalog (name,
+ * alternative titles, genres and category) to rank searches outside the database.
+ */
+public interface MediaIndexService {
+    /**
+     * Searches the index and returns the IDs of the medias ranked by relevance.
+     * <p>
+     * The name has the highest weight, then the alternative titles and then the genres. Accents and case
+     * are ignored and small typos are tolerated.
+     *
+     * @param text     The text searched.
+     * @param category The ID of the media category to filter results by, or <code>null</code> for all.
+     * @param pageable The page of results.
+     * @return A page of media IDs, the most relevant first.
+     */
+    Page<Integer> search(String text, Integer category, Pageable pageable);
+
+    /**
+     * Schedules the medias to be (re)indexed. The index is updated in background, reading the medias
+     * from database with their alternative titles and genres.
+     *
+     * @param ids The IDs of the medias saved or removed.
+     */
+    void reindex(Collection<Integer> ids);
+
+    /**
+     * Rebuilds the whole index from database, reading the catalog in batches.
+     */
+    void rebuild();
+}
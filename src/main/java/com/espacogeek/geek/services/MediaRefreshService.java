@@ -0,0 +1,26 @@
+package com.espacogeek.geek.services;
+
+import java.util.Collection;
+
+import com.espacogeek.geek.models.MediaModel;
+
+/**
+ * Interface for the MediaRefreshService, which updates outdated medias from the provider of their category.
+ */
+public interface MediaRefreshService {
+    /**
+     * Updates the media from its provider when the last update was more than one day ago.
+     *
+     * @param media The media with every association loaded, see {@link MediaService#findByIdEager(Integer)}.
+     * @return the media, updated or not.
+     */
+    MediaModel refresh(MediaModel media);
+
+    /**
+     * Schedules the medias to be refreshed in background, a few at a time. The medias already being
+     * refreshed are skipped.
+     *
+     * @param ids The IDs of the medias.
+     */
+    void refreshInBackground(Collection<Integer> ids);
+}
@@ -1,29 +1,27 @@
 package com.espacogeek.geek.services;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Map;
 
 import com.espacogeek.geek.models.ExternalReferenceModel;
 import com.espacogeek.geek.models.MediaModel;
 import com.espacogeek.geek.models.TypeReferenceModel;
+import com.espacogeek.geek.repositories.MediaRepositoryCustom.Keyset;
+import com.espacogeek.geek.types.MediaFilter;
+import com.espacogeek.geek.types.SearchGroup;
 
 /**
  * Interface for the MediaService, which provides methods for managing MediaModel objects.
  */
 public interface MediaService {
-    /**
-     * Finds Series (MediaModel) objects by their ID or name.
-     *
-     * @param id   The ID of the Series (MediaModel) object to find.
-     * @param name The name of the Series (MediaModel) object to find.
-     * @return A list of Series (MediaModel) objects that match the provided ID or name.
-     */
-    Page<MediaModel> findSerieByIdOrName(Integer id, String name, Pageable pageable);
+    // totals above this are not counted, the page reports MAX_EXACT_COUNT + 1 as a lower bound
+    public static final int MAX_EXACT_COUNT = 10000;
 
     /**
      * Finds Series (MediaModel) objects by their ID or name.
@@ -31,20 +29,74 @@ public interface MediaService {
      * @param id   The ID of the Series (MediaModel) object to find.
      * @param name The name of the Series (MediaModel) object to find.
      * @param requestedFields The fields to include in the response.
-     * @return A list of Series (MediaModel) objects that match the provided ID or name.
+     * @param withTotal Whether the total is needed, see {@link #MAX_EXACT_COUNT}.
+     * @return A Page of Series (MediaModel) objects when <code>withTotal</code>, otherwise a Slice read
+     *         without counting.
      */
-    Page<MediaModel> findSerieByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable);
+    Slice<MediaModel> findSerieByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal);
 
     /**
      * Finds Game (MediaModel) objects by their ID or name.
      *
      * @param id   The ID of the Game (MediaModel) object to find.
      * @param name The name of the Game (MediaModel) object to find.
-     * @return A list of Game (MediaModel) objects that match the provided ID or name.
+     * @param requestedFields The fields to include in the response.
+     * @param withTotal Whether the total is needed, see {@link #MAX_EXACT_COUNT}.
+     * @return A Page of Game (MediaModel) objects when <code>withTotal</code>, otherwise a Slice read
+     *         without counting.
      */
-    Page<MediaModel> findGameByIdOrName(Integer id, String name, Pageable pageable);
+    Slice<MediaModel> findGameByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal);
 
-    Page<MediaModel> findMovieByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable);
+    /**
+     * Finds Visual Novel (MediaModel) objects by their ID or name.
+     *
+     * @param id   The ID of the Visual Novel (MediaModel) object to find.
+     * @param name The name of the Visual Novel (MediaModel) object to find.
+     * @param requestedFields The fields to include in the response.
+     * @param withTotal Whether the total is needed, see {@link #MAX_EXACT_COUNT}.
+     * @return A Page of Visual Novel (MediaModel) objects when <code>withTotal</code>, otherwise a Slice
+     *         read without counting.
+     */
+    Slice<MediaModel> findVisualNovelByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal);
+
+    /**
+     * Finds medias by name or alternative title with keyset pagination, reading the page after the cursor
+     * instead of skipping the previous ones.
+     *
+     * @param name     The name searched, or <code>null</code> to browse the category.
+     * @param category The ID of the media category, or <code>null</code> for all categories.
+     * @param after    The opaque cursor of the last media read, or <code>null</code> for the first page.
+     * @param first    The size of the page, 10 by default and at most 100.
+     * @param requestedFields The fields to include in the response, or <code>null</code> for the entities.
+     * @return the page of medias and the cursor to read the next one.
+     */
+    Keyset findByNameAfter(String name, Integer category, String after, Integer first, Map<String, List<String>> requestedFields);
+
+    /**
+     * Browses the medias matching the filter in ID order, with keyset pagination. The filter is answered
+     * from memory by {@link MediaFacetService}, only the page is read from database.
+     *
+     * @param filter   The values of each facet.
+     * @param after    The opaque cursor of the last media read, or <code>null</code> for the first page.
+     * @param first    The size of the page, 10 by default and at most 100.
+     * @param requestedFields The fields to include in the response, or <code>null</code> for the entities.
+     * @return the page of medias and the cursor to read the next one.
+     */
+    Keyset findByFilterAfter(MediaFilter filter, String after, Integer first, Map<String, List<String>> requestedFields);
+
+    /**
+     * Searches medias by name or alternative title in several categories at once, with one ranking query for
+     * all of them and one query to read the medias.
+     *
+     * @param name       The name searched.
+     * @param categories The IDs of the media categories, in the order of the groups returned.
+     * @param limit      The max number of medias per category, 10 by default and at most 100.
+     * @param requestedFields The fields to include in the response, or <code>null</code> for the entities.
+     * @return one SearchGroup per category, empty when the category has no match.
+     */
+    List<SearchGroup> searchByCategories(String name, List<Integer> categories, Integer limit, Map<String, List<String>> requestedFields);
+
+    Slice<MediaModel> findMovieByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal);
 
     /**
      * Saves a MediaModel object to the database.
@@ -69,6 +121,14 @@ public interface MediaService {
      */
     Optional<MediaModel> findById(Integer idMedia);
 
+    /**
+     * Find the medias of the IDs provided with one query, the associations stay lazy.
+     *
+     * @param ids the IDs (PK) of the medias, possibly repeated.
+     * @return the medias in the order of the IDs, with <code>null</code> for the IDs not found.
+     */
+    List<MediaModel> findAllById(List<Integer> ids);
+
     /**
      * Find media by <code>ExternalReference</code> and <code>TypeReference</code>.
      *
@@ -79,12 +139,37 @@ public interface MediaService {
     Optional<MediaModel> findByReferenceAndTypeReference(ExternalReferenceModel reference, TypeReferenceModel typeReferenceModel);
 
     /**
-     * Find any media by ID (PK) provided with eager loading.
+     * Find any media by ID (PK) provided with eager loading of every association.
      * @param idMedia the ID (PK) of the media.
      * @return return a Optional Media.
      */
     Optional<MediaModel> findByIdEager(Integer id);
 
+    /**
+     * Find any media by ID (PK) provided with eager loading of the associations provided only, usually the
+     * ones selected by the client. The other associations stay lazy.
+     *
+     * @param id           the ID (PK) of the media.
+     * @param associations the names of the associations to load, like <code>genre</code>.
+     * @return return a Optional Media.
+     */
+    Optional<MediaModel> findByIdEager(Integer id, Collection<String> associations);
+
 
     Optional<String> randomArtwork();
+
+    /**
+     * Mark the medias as outdated, so they are refreshed from the provider on the next read.
+     *
+     * @param ids IDs (PK) of the medias.
+     */
+    void markStale(Collection<Integer> ids);
+
+    /**
+     * Drops the cached searches and counts of a category, after a media or alternative title of it was
+     * inserted or renamed.
+     *
+     * @param category The ID of the media category, or <code>null</code> to drop every search.
+     */
+    void invalidateSearches(Integer category);
 }
@@ -0,0 +1,31 @@
+package com.espacogeek.geek.services;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.espacogeek.geek.exception.GenericException;
+import com.espacogeek.geek.types.Suggestion;
+
+/**
+ * Interface for the MediaSuggestService, which answers type-ahead suggestions from memory.
+ */
+public interface MediaSuggestService {
+    /**
+     * Suggests medias whose name or any alternative title starts with the prefix, the most popular first.
+     * Accents, case and punctuation are ignored.
+     *
+     * @param prefix   The text typed so far.
+     * @param category The ID of the media category to filter suggestions by, or <code>null</code> for all.
+     * @param limit    The max number of suggestions, at most 10.
+     * @return A list of Suggestion, one per media.
+     * @throws GenericException if the limit is above 10.
+     */
+    List<Suggestion> suggest(String prefix, Integer category, int limit);
+
+    /**
+     * Schedules the suggestions of the medias to be updated, after they were saved or removed.
+     *
+     * @param ids The IDs of the medias.
+     */
+    void refresh(Collection<Integer> ids);
+}
@@ -0,0 +1,26 @@
+package com.espacogeek.geek.services;
+
+import java.util.Optional;
+
+import com.espacogeek.geek.models.SyncStateModel;
+
+/**
+ * Interface for the SyncStateService, which keeps the watermark of each catalog sync job.
+ */
+public interface SyncStateService {
+    /**
+     * Retrieves the state of the sync job by its name.
+     *
+     * @param name The name of the sync job.
+     * @return An Optional containing the SyncStateModel object if the job already ran, or an empty Optional if not.
+     */
+    Optional<SyncStateModel> findByName(String name);
+
+    /**
+     * Saves the state of a sync job.
+     *
+     * @param syncState The SyncStateModel object to save.
+     * @return The saved SyncStateModel object.
+     */
+    SyncStateModel save(SyncStateModel syncState);
+}
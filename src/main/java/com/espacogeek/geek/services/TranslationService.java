@@ -0,0 +1,46 @@
+package com.espacogeek.geek.services;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.espacogeek.geek.models.MediaTranslationModel;
+import com.espacogeek.geek.models.SeasonTranslationModel;
+
+/**
+ * Interface for the TranslationService, which keeps the localized fields of medias and seasons per locale.
+ */
+public interface TranslationService {
+    /**
+     * Retrieves the translations of the medias to the locale, in one query.
+     *
+     * @param mediaIds The IDs of the medias.
+     * @param locale   The locale of the translations, like <code>pt-BR</code>.
+     * @return A list of MediaTranslationModel, medias without translation to the locale are absent.
+     */
+    List<MediaTranslationModel> findMediaTranslations(Collection<Integer> mediaIds, String locale);
+
+    /**
+     * Retrieves the translations of every season of the medias to the locale, in one query.
+     *
+     * @param mediaIds The IDs of the medias owning the seasons.
+     * @param locale   The locale of the translations, like <code>pt-BR</code>.
+     * @return A list of SeasonTranslationModel.
+     */
+    List<SeasonTranslationModel> findSeasonTranslations(Collection<Integer> mediaIds, String locale);
+
+    /**
+     * Saves the media translations provided.
+     *
+     * @param translations The MediaTranslationModel objects to save.
+     * @return The saved MediaTranslationModel objects.
+     */
+    List<MediaTranslationModel> saveAllMediaTranslations(List<MediaTranslationModel> translations);
+
+    /**
+     * Saves the season translations provided.
+     *
+     * @param translations The SeasonTranslationModel objects to save.
+     * @return The saved SeasonTranslationModel objects.
+     */
+    List<SeasonTranslationModel> saveAllSeasonTranslations(List<SeasonTranslationModel> translations);
+}
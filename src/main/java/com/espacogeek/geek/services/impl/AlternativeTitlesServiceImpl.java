@@ -9,13 +9,24 @@ import org.springframework.stereotype.Service;
 import com.espacogeek.geek.models.AlternativeTitleModel;
 import com.espacogeek.geek.repositories.AlternativeTitlesRepository;
 import com.espacogeek.geek.services.AlternativeTitlesService;
+import com.espacogeek.geek.services.MediaIndexService;
+import com.espacogeek.geek.services.MediaSuggestService;
 
 @Service
 public class AlternativeTitlesServiceImpl implements AlternativeTitlesService {
     @Autowired
     private AlternativeTitlesRepository alternativeTitlesRepository;
+    @Autowired
+    private MediaIndexService mediaIndexService;
+    @Autowired
+    private MediaSuggestService mediaSuggestService;
 
     public List<AlternativeTitleModel> saveAll(List<AlternativeTitleModel> alternativeTitles) throws DataIntegrityViolationException {
-        return alternativeTitlesRepository.saveAll(alternativeTitles);
+        var saved = alternativeTitlesRepository.saveAll(alternativeTitles);
+        var mediaIds = saved.stream().filter((title) -> title.getMedia() != null).map((title) -> title.getMedia().getId()).distinct().toList();
+        mediaIndexService.reindex(mediaIds);
+        mediaSuggestService.refresh(mediaIds);
+
+        return saved;
     }
 }
@@ -33,4 +33,12 @@ public class ApiKeyServiceImpl implements ApiKeyService {
     public Optional<ApiKeyModel> save(ApiKeyModel apiKeyModel) {
         return Optional.ofNullable(apiKeyRepository.save(apiKeyModel));
     }
+
+    /**
+     * @see ApiKeyService#findByIdForUpdate(Integer)
+     */
+    @Override
+    public Optional<ApiKeyModel> findByIdForUpdate(Integer id) {
+        return apiKeyRepository.findByIdForUpdate(id);
+    }
 }
@@ -1,7 +1,9 @@
 package com.espacogeek.geek.services.impl;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Example;
@@ -67,4 +69,23 @@ public class ExternalReferenceServiceImpl implements ExternalReferenceService {
     public Optional<ExternalReferenceModel> findByReferenceAndType(String reference, TypeReferenceModel typeReference) {
         return this.externalReferenceRepository.findByReferenceAndTypeReference(reference, typeReference);
     }
+
+    /**
+     * @see ExternalReferenceService#findAllByReferencesAndType(Collection, TypeReferenceModel)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<ExternalReferenceModel> findAllByReferencesAndType(Collection<String> references, TypeReferenceModel typeReference) {
+        if (references.isEmpty()) return List.of();
+        return this.externalReferenceRepository.findAllByReferenceInAndTypeReference(references, typeReference);
+    }
+
+    /**
+     * @see ExternalReferenceService#findExistingReferences(Collection, TypeReferenceModel)
+     */
+    @Override
+    public Set<String> findExistingReferences(Collection<String> references, TypeReferenceModel typeReference) {
+        if (references.isEmpty()) return Set.of();
+        return this.externalReferenceRepository.findExistingReferences(references, typeReference);
+    }
 }
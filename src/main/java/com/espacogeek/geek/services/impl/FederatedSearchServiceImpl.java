@@ -0,0 +1,170 @@
+package com.espacogeek.geek.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.data.api.MediaApi;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.services.ExternalReferenceService;
+import com.espacogeek.geek.services.FederatedSearchService;
+import com.espacogeek.geek.services.MediaCategoryService;
+import com.espacogeek.geek.services.TypeReferenceService;
+import com.espacogeek.geek.utils.Utils;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * A Implementation class of FederatedSearchService @see FederatedSearchService
+ * <p>
+ * The provider is searched on a virtual thread, and the same search of a category runs only once at a
+ * time: concurrent requests wait for the search already running.
+ */
+@Service
+public class FederatedSearchServiceImpl implements FederatedSearchService {
+    private static final Logger log = LoggerFactory.getLogger(FederatedSearchServiceImpl.class);
+
+    @Autowired
+    private MediaApi tvSeriesApi;
+
+    @Autowired
+    private MediaApi gamesAndVNsAPI;
+
+    @Autowired
+    private MediaDataController genericMediaDataController;
+
+    @Autowired
+    private ExternalReferenceService externalReferenceService;
+
+    @Autowired
+    private TypeReferenceService typeReferenceService;
+
+    @Autowired
+    private MediaCategoryService mediaCategoryService;
+
+    @Value("${media.search.provider.deadline-ms:300}")
+    private long deadlineMillis;
+
+    /**
+     * The API searched for a category and the type of its external references.
+     */
+    private record Provider(MediaApi api, Integer typeReferenceId) {
+    }
+
+    private Map<Integer, Provider> providers;
+
+    // provider searches running, by category and search key, with the number of medias saved
+    private final Map<String, CompletableFuture<Integer>> running = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void init() {
+        providers = Map.of(
+                MediaDataController.SERIE_ID, new Provider(tvSeriesApi, MediaDataController.TMDB_ID),
+                MediaDataController.GAME_ID, new Provider(gamesAndVNsAPI, MediaDataController.IGDB_ID),
+                MediaDataController.VN_ID, new Provider(gamesAndVNsAPI, MediaDataController.IGDB_ID));
+    }
+
+    /**
+     * @see FederatedSearchService#search(String, Integer, Supplier)
+     */
+    @Override
+    public <T> T search(String name, Integer category, Supplier<T> localSearch) {
+        return search(name, List.of(category), localSearch);
+    }
+
+    /**
+     * @see FederatedSearchService#search(String, Collection, Supplier)
+     */
+    @Override
+    public <T> T search(String name, Collection<Integer> categories, Supplier<T> localSearch) {
+        var searchKey = Utils.toSearchKey(name);
+        if (searchKey == null) return localSearch.get();
+
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        List<CompletableFuture<Integer>> imports = new ArrayList<>();
+        for (Integer category : categories) {
+            var provider = providers.get(category);
+            if (provider != null) imports.add(importFromProvider(name, category + ":" + searchKey, category, provider));
+        }
+        if (imports.isEmpty()) return localSearch.get();
+
+        var local = localSearch.get();
+        var saved = 0;
+        for (CompletableFuture<Integer> imported : imports) {
+            try {
+                saved += imported.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.debug("Provider search of \"{}\" passed the deadline, returning the database results", name);
+            } catch (ExecutionException e) {
+                log.warn("Failed to search \"{}\" on the provider: {}", name, e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return saved > 0 ? localSearch.get() : local;
+    }
+
+    /**
+     * Searches the provider in background, or joins the same search already running.
+     */
+    private CompletableFuture<Integer> importFromProvider(String name, String key, Integer category, Provider provider) {
+        var future = new CompletableFuture<Integer>();
+        var current = running.putIfAbsent(key, future);
+        if (current != null) return current;
+
+        Thread.ofVirtual().name("media-federated-search").start(() -> {
+            try {
+                future.complete(importUnseen(name, category, provider));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                running.remove(key, future);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Saves the provider results whose external reference isn't in database yet.
+     *
+     * @return the number of medias saved.
+     */
+    private int importUnseen(String name, Integer category, Provider provider) {
+        var mediaCategory = mediaCategoryService.findById(category).orElseThrow();
+        var typeReference = typeReferenceService.findById(provider.typeReferenceId()).orElseThrow();
+        var results = provider.api().doSearch(name, mediaCategory);
+        if (results.isEmpty()) return 0;
+
+        var existing = externalReferenceService.findExistingReferences(results.stream().map(this::reference).toList(), typeReference);
+        var seen = new HashSet<>(existing);
+        List<MediaModel> unseen = results.stream().filter((media) -> seen.add(reference(media))).toList();
+        if (unseen.isEmpty()) return 0;
+
+        genericMediaDataController.importSearchResults(unseen, provider.api(), typeReference, mediaCategory);
+        log.debug("Saved {} medias found on the provider for \"{}\"", unseen.size(), name);
+
+        return unseen.size();
+    }
+
+    private String reference(MediaModel media) {
+        return media.getExternalReference().getFirst().getReference();
+    }
+}
@@ -0,0 +1,357 @@
+package com.espacogeek.geek.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.repositories.MediaRepository;
+import com.espacogeek.geek.services.MediaIndexService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A Implementation class of MediaIndexService @see MediaIndexService
+ * <p>
+ * The index lives on local disk (<code>media.search.index.path</code>) and is near real time: writes are
+ * visible to searches after the next refresh (every second), and committed to disk every minute.
+ * <p>
+ * The index is only opened, built and kept up to date when <code>media.search.mode=index</code>, otherwise
+ * nothing reads it and every method but {@link #search(String, Integer, Pageable)} does nothing.
+ */
+@Service
+public class LuceneMediaIndexServiceImpl implements MediaIndexService {
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_CATEGORY = "category";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_ALTERNATIVE_TITLE = "alternativeTitle";
+    private static final String FIELD_GENRE = "genre";
+
+    private static final float NAME_BOOST = 4f;
+    private static final float ALTERNATIVE_TITLE_BOOST = 2f;
+    private static final float GENRE_BOOST = 0.5f;
+    private static final float FUZZY_BOOST = 0.4f; // a typo match is always worth less than the exact term
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_TERMS = 10;
+    private static final String SEARCH_MODE_INDEX = "index";
+
+    private static final Logger log = LoggerFactory.getLogger(LuceneMediaIndexServiceImpl.class);
+
+    @SuppressWarnings("rawtypes")
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${media.search.index.path:./data/media-index}")
+    private String indexPath;
+
+    @Value("${media.search.mode:database}")
+    private String searchMode;
+
+    private final Analyzer analyzer = new Analyzer() {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            var tokenizer = new StandardTokenizer();
+            TokenStream stream = new LowerCaseFilter(tokenizer);
+            stream = new ASCIIFoldingFilter(stream);
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+    };
+
+    private final Set<Integer> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private boolean enabled;
+
+    @PostConstruct
+    private void init() throws IOException {
+        enabled = SEARCH_MODE_INDEX.equals(searchMode);
+        if (!enabled) return;
+
+        directory = FSDirectory.open(Path.of(indexPath));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    private void close() throws IOException {
+        if (!enabled) return;
+
+        searcherManager.close();
+        writer.commit();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Builds the index in background when it's empty, like on the first start of a node.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildWhenEmpty() {
+        if (!enabled || writer.getDocStats().numDocs > 0) return;
+
+        Thread.ofVirtual().name("media-index-build").start(this::rebuild);
+    }
+
+    /**
+     * @see MediaIndexService#search(String, Integer, Pageable)
+     */
+    @Override
+    public Page<Integer> search(String text, Integer category, Pageable pageable) {
+        if (!enabled) throw new IllegalStateException("The media index is only kept with media.search.mode=" + SEARCH_MODE_INDEX);
+
+        var query = buildQuery(text, category);
+        if (query == null) return new PageImpl<>(List.of(), pageable, 0);
+
+        try {
+            var searcher = searcherManager.acquire();
+            try {
+                var end = (int) pageable.getOffset() + pageable.getPageSize();
+                var topDocs = searcher.search(query, end);
+                var storedFields = searcher.storedFields();
+                var ids = new ArrayList<Integer>(pageable.getPageSize());
+
+                for (int i = (int) pageable.getOffset(); i < topDocs.scoreDocs.length; i++) {
+                    ids.add(Integer.valueOf(storedFields.document(topDocs.scoreDocs[i].doc).get(FIELD_ID)));
+                }
+
+                return new PageImpl<>(ids, pageable, topDocs.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Every analyzed term of the text has to match at least one field. Each term matches exactly, and
+     * with typos when it's long enough, the last one also matches as prefix (the user may still be typing).
+     */
+    private Query buildQuery(String text, Integer category) {
+        var terms = analyze(text);
+        if (terms.isEmpty()) return null;
+
+        var query = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            var term = terms.get(i);
+            var termQuery = new BooleanQuery.Builder();
+
+            addFieldClauses(termQuery, FIELD_NAME, term, NAME_BOOST, i == terms.size() - 1);
+            addFieldClauses(termQuery, FIELD_ALTERNATIVE_TITLE, term, ALTERNATIVE_TITLE_BOOST, i == terms.size() - 1);
+            termQuery.add(new BoostQuery(new TermQuery(new Term(FIELD_GENRE, term)), GENRE_BOOST), BooleanClause.Occur.SHOULD);
+
+            query.add(termQuery.build(), BooleanClause.Occur.MUST);
+        }
+
+        if (category != null) {
+            query.add(new TermQuery(new Term(FIELD_CATEGORY, category.toString())), BooleanClause.Occur.FILTER);
+        }
+
+        return query.build();
+    }
+
+    private void addFieldClauses(BooleanQuery.Builder builder, String field, String term, float boost, boolean lastTerm) {
+        builder.add(new BoostQuery(new TermQuery(new Term(field, term)), boost), BooleanClause.Occur.SHOULD);
+
+        var maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            builder.add(new BoostQuery(new FuzzyQuery(new Term(field, term), maxEdits, 1), boost * FUZZY_BOOST), BooleanClause.Occur.SHOULD);
+        }
+        if (lastTerm && term.length() >= 2) {
+            builder.add(new BoostQuery(new PrefixQuery(new Term(field, term)), boost * FUZZY_BOOST), BooleanClause.Occur.SHOULD);
+        }
+    }
+
+    private List<String> analyze(String text) {
+        var terms = new ArrayList<String>();
+        if (text == null || text.isBlank()) return terms;
+
+        try (var stream = analyzer.tokenStream(FIELD_NAME, text)) {
+            var term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return terms;
+    }
+
+    /**
+     * @see MediaIndexService#reindex(Collection)
+     */
+    @Override
+    public void reindex(Collection<Integer> ids) {
+        if (!enabled) return;
+
+        ids.stream().filter((id) -> id != null).forEach(pendingIds::add);
+    }
+
+    /**
+     * Writes the medias saved since the last run and makes them visible to searches.
+     */
+    @Scheduled(fixedDelay = 1000)
+    @SuppressWarnings("unused")
+    private void flushPending() {
+        if (pendingIds.isEmpty()) return;
+
+        var ids = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(ids);
+
+        try {
+            for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                var batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+                indexBatch(batch);
+            }
+            searcherManager.maybeRefresh();
+        } catch (Exception e) {
+            log.warn("Failed to update the media index, retrying on the next run: {}", e.getMessage());
+            pendingIds.addAll(ids);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60 * 1000, initialDelay = 60 * 1000)
+    @SuppressWarnings("unused")
+    private void commit() throws IOException {
+        if (enabled && writer.hasUncommittedChanges()) writer.commit();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void indexBatch(List<Integer> ids) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<MediaModel> medias = mediaRepository.findAllById(ids);
+            var found = new HashSet<Integer>();
+
+            for (MediaModel media : medias) {
+                updateDocument(media);
+                found.add(media.getId());
+            }
+            for (Integer id : ids) {
+                if (!found.contains(id)) deleteDocument(id);
+            }
+        });
+    }
+
+    /**
+     * @see MediaIndexService#rebuild()
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) return;
+
+        var indexed = 0;
+        var lastId = 0;
+        try {
+            while (true) {
+                final var after = lastId;
+                List<MediaModel> batch = transactionTemplate.execute(status -> {
+                    List<MediaModel> medias = mediaRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, BATCH_SIZE));
+                    medias.forEach(this::updateDocument);
+                    return medias;
+                });
+                if (batch == null || batch.isEmpty()) break;
+
+                indexed += batch.size();
+                lastId = batch.getLast().getId();
+            }
+
+            writer.commit();
+            searcherManager.maybeRefresh();
+            log.info("Media index built, {} medias indexed", indexed);
+        } catch (Exception e) {
+            log.error("Failed to build the media index, {} medias indexed before failure", indexed, e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void updateDocument(MediaModel media) {
+        var document = new Document();
+        document.add(new StringField(FIELD_ID, media.getId().toString(), Field.Store.YES));
+        if (media.getMediaCategory() != null) {
+            document.add(new StringField(FIELD_CATEGORY, media.getMediaCategory().getId().toString(), Field.Store.NO));
+        }
+        if (media.getName() != null) {
+            document.add(new TextField(FIELD_NAME, media.getName(), Field.Store.NO));
+        }
+        if (media.getAlternativeTitles() != null) {
+            for (AlternativeTitleModel title : media.getAlternativeTitles()) {
+                if (title.getName() != null) document.add(new TextField(FIELD_ALTERNATIVE_TITLE, title.getName(), Field.Store.NO));
+            }
+        }
+        if (media.getGenre() != null) {
+            for (GenreModel genre : media.getGenre()) {
+                if (genre.getName() != null) document.add(new TextField(FIELD_GENRE, genre.getName(), Field.Store.NO));
+            }
+        }
+
+        try {
+            writer.updateDocument(new Term(FIELD_ID, media.getId().toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteDocument(Integer id) {
+        try {
+            writer.deleteDocuments(new Term(FIELD_ID, id.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
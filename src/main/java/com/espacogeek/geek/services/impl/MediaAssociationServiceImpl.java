@@ -0,0 +1,109 @@
+package com.espacogeek.geek.services.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SeasonModel;
+import com.espacogeek.geek.repositories.MediaRepository;
+import com.espacogeek.geek.services.MediaAssociationService;
+
+/**
+ * A Implementation class of MediaAssociationService @see MediaAssociationService
+ * <p>
+ * An association is loaded when it was set by a projected search or initialized in the persistence context,
+ * the uninitialized lazy collections are left untouched and read with one <code>IN</code> query instead.
+ */
+@Service
+public class MediaAssociationServiceImpl implements MediaAssociationService {
+    @SuppressWarnings("rawtypes")
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    /**
+     * @see MediaAssociationService#findCategories(List)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<MediaModel, MediaCategoryModel> findCategories(List<MediaModel> medias) {
+        return batch(medias, MediaModel::getMediaCategory, (ids) -> mediaRepository.findCategoriesByMediaIdIn(ids));
+    }
+
+    /**
+     * @see MediaAssociationService#findGenres(List)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<MediaModel, List<GenreModel>> findGenres(List<MediaModel> medias) {
+        return batch(medias, MediaModel::getGenre, (ids) -> mediaRepository.findGenresByMediaIdIn(ids));
+    }
+
+    /**
+     * @see MediaAssociationService#findAlternativeTitles(List)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<MediaModel, List<AlternativeTitleModel>> findAlternativeTitles(List<MediaModel> medias) {
+        return batch(medias, MediaModel::getAlternativeTitles, (ids) -> mediaRepository.findAlternativeTitlesByMediaIdIn(ids));
+    }
+
+    /**
+     * @see MediaAssociationService#findExternalReferences(List)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<MediaModel, List<ExternalReferenceModel>> findExternalReferences(List<MediaModel> medias) {
+        return batch(medias, MediaModel::getExternalReference, (ids) -> mediaRepository.findExternalReferencesByMediaIdIn(ids));
+    }
+
+    /**
+     * @see MediaAssociationService#findSeasons(List)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<MediaModel, List<SeasonModel>> findSeasons(List<MediaModel> medias) {
+        return batch(medias, MediaModel::getSeason, (ids) -> mediaRepository.findSeasonsByMediaIdIn(ids));
+    }
+
+    /**
+     * Answers the medias whose association is loaded, and loads the others with one query.
+     *
+     * @param medias the medias, possibly repeated.
+     * @param getter reads the association of a media, without initializing it.
+     * @param loader loads the association of the media IDs.
+     * @return the association of each media.
+     */
+    private <T> Map<MediaModel, T> batch(List<MediaModel> medias, Function<MediaModel, T> getter, Function<Set<Integer>, Map<Integer, T>> loader) {
+        Map<MediaModel, T> associations = new HashMap<>();
+        List<MediaModel> missing = new ArrayList<>();
+        for (MediaModel media : medias) {
+            var association = getter.apply(media);
+            if (association != null && Hibernate.isInitialized(association)) {
+                associations.put(media, association);
+            } else if (media.getId() != null) {
+                missing.add(media);
+            }
+        }
+        if (missing.isEmpty()) return associations;
+
+        var ids = new LinkedHashSet<Integer>();
+        missing.forEach((media) -> ids.add(media.getId()));
+        var loaded = loader.apply(ids);
+        missing.forEach((media) -> associations.put(media, loaded.get(media.getId())));
+
+        return associations;
+    }
+}
@@ -0,0 +1,343 @@
+package com.espacogeek.geek.services.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
+import com.espacogeek.geek.repositories.GenreRepository;
+import com.espacogeek.geek.repositories.MediaCategoryRepository;
+import com.espacogeek.geek.repositories.MediaRepository;
+import com.espacogeek.geek.services.MediaFacetService;
+import com.espacogeek.geek.types.FacetCount;
+import com.espacogeek.geek.types.Facets;
+import com.espacogeek.geek.types.MediaFilter;
+
+/**
+ * A Implementation class of MediaFacetService @see MediaFacetService
+ * <p>
+ * One bitmap of media IDs per category, genre and year is kept in memory, so a filter is the union of the
+ * bitmaps of each facet intersected across the facets, and a count is the cardinality of an intersection.
+ * Saved medias are applied every second and the bitmaps are rebuilt from database every hour.
+ */
+@Service
+public class MediaFacetServiceImpl implements MediaFacetService {
+    private static final int BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(MediaFacetServiceImpl.class);
+
+    @SuppressWarnings("rawtypes")
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private MediaCategoryRepository mediaCategoryRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Integer> pendingIds = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> refreshedWhileRebuilding = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile State state = new State();
+
+    /**
+     * Facet values of one media, kept to clear its bits when it changes.
+     */
+    private record MediaRow(int id, Integer categoryId, List<Integer> genreIds, Integer year) {
+    }
+
+    private static final class State {
+        private final BitSet all = new BitSet();
+        private final Map<Integer, BitSet> categories = new HashMap<>();
+        private final Map<Integer, BitSet> genres = new HashMap<>();
+        private final Map<Integer, BitSet> years = new HashMap<>();
+        private final Map<Integer, MediaRow> rows = new HashMap<>();
+        private final Map<Integer, String> categoryNames = new HashMap<>();
+        private final Map<Integer, String> genreNames = new HashMap<>();
+
+        private void put(MediaRow row) {
+            remove(row.id());
+            rows.put(row.id(), row);
+            all.set(row.id());
+            if (row.categoryId() != null) categories.computeIfAbsent(row.categoryId(), (value) -> new BitSet()).set(row.id());
+            if (row.year() != null) years.computeIfAbsent(row.year(), (value) -> new BitSet()).set(row.id());
+            for (Integer genre : row.genreIds()) {
+                genres.computeIfAbsent(genre, (value) -> new BitSet()).set(row.id());
+            }
+        }
+
+        private void remove(int id) {
+            var row = rows.remove(id);
+            if (row == null) return;
+
+            all.clear(id);
+            clear(categories, row.categoryId(), id);
+            clear(years, row.year(), id);
+            for (Integer genre : row.genreIds()) {
+                clear(genres, genre, id);
+            }
+        }
+
+        private static void clear(Map<Integer, BitSet> index, Integer value, int id) {
+            if (value == null) return;
+
+            var bitmap = index.get(value);
+            if (bitmap == null) return;
+
+            bitmap.clear(id);
+            if (bitmap.isEmpty()) index.remove(value);
+        }
+
+        /**
+         * The medias with any of the values, or <code>null</code> when no value is selected.
+         */
+        private BitSet union(Map<Integer, BitSet> index, List<Integer> values) {
+            if (values == null || values.isEmpty()) return null;
+
+            var union = new BitSet();
+            for (Integer value : values) {
+                var bitmap = value == null ? null : index.get(value);
+                if (bitmap != null) union.or(bitmap);
+            }
+
+            return union;
+        }
+
+        /**
+         * The medias in every selection, the selections not made don't filter.
+         */
+        private BitSet intersect(BitSet... selections) {
+            var matching = (BitSet) all.clone();
+            for (BitSet selection : selections) {
+                if (selection != null) matching.and(selection);
+            }
+
+            return matching;
+        }
+    }
+
+    /**
+     * Builds the facets from database in background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        Thread.ofVirtual().name("media-facet-build").start(this::rebuild);
+    }
+
+    /**
+     * @see MediaFacetService#findIds(MediaFilter, int, int)
+     */
+    @Override
+    public List<Integer> findIds(MediaFilter filter, int afterId, int limit) {
+        if (limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            var current = state;
+            var matching = current.intersect(current.union(current.categories, filter.getCategory()),
+                    current.union(current.genres, filter.getGenre()), current.union(current.years, filter.getYear()));
+
+            var ids = new ArrayList<Integer>(limit);
+            for (int id = matching.nextSetBit(Math.max(afterId + 1, 0)); id >= 0 && ids.size() < limit; id = matching.nextSetBit(id + 1)) {
+                ids.add(id);
+            }
+
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @see MediaFacetService#count(MediaFilter)
+     */
+    @Override
+    public Facets count(MediaFilter filter) {
+        lock.readLock().lock();
+        try {
+            var current = state;
+            var category = current.union(current.categories, filter.getCategory());
+            var genre = current.union(current.genres, filter.getGenre());
+            var year = current.union(current.years, filter.getYear());
+
+            // each facet is counted with the filters of the others, so its values stay selectable
+            var categories = count(current.categories, current.categoryNames, current.intersect(genre, year));
+            var genres = count(current.genres, current.genreNames, current.intersect(category, year));
+            var years = count(current.years, Map.of(), current.intersect(category, genre));
+
+            categories.sort(Comparator.comparing(FacetCount::getValue));
+            genres.sort(Comparator.comparingInt(FacetCount::getCount).reversed().thenComparing(FacetCount::getValue));
+            years.sort(Comparator.comparing(FacetCount::getValue).reversed());
+
+            return new Facets(categories, genres, years);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<FacetCount> count(Map<Integer, BitSet> index, Map<Integer, String> names, BitSet matching) {
+        var counts = new ArrayList<FacetCount>(index.size());
+        for (Map.Entry<Integer, BitSet> value : index.entrySet()) {
+            var both = (BitSet) value.getValue().clone();
+            both.and(matching);
+
+            var count = both.cardinality();
+            if (count > 0) counts.add(new FacetCount(value.getKey(), names.getOrDefault(value.getKey(), value.getKey().toString()), count));
+        }
+
+        return counts;
+    }
+
+    /**
+     * @see MediaFacetService#refresh(Collection)
+     */
+    @Override
+    public void refresh(Collection<Integer> ids) {
+        ids.stream().filter((id) -> id != null).forEach(pendingIds::add);
+    }
+
+    /**
+     * Applies the medias saved since the last run.
+     */
+    @Scheduled(fixedDelay = 1000)
+    @SuppressWarnings({ "unused", "unchecked" })
+    private void flushPending() {
+        if (pendingIds.isEmpty()) return;
+
+        var ids = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(ids);
+        if (rebuilding.get()) refreshedWhileRebuilding.addAll(ids);
+
+        try {
+            for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                var batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+                var rows = readRows(mediaRepository.findSuggestionRowsByIdIn(batch));
+                var found = new HashSet<Integer>();
+
+                // genres are only created by the imports, read their names when a new one shows up
+                Map<Integer, String> genreNames = null;
+                if (rows.stream().flatMap((row) -> row.genreIds().stream()).anyMatch((genre) -> !state.genreNames.containsKey(genre))) {
+                    genreNames = readGenreNames();
+                }
+
+                lock.writeLock().lock();
+                try {
+                    if (genreNames != null) state.genreNames.putAll(genreNames);
+                    for (MediaRow row : rows) {
+                        state.put(row);
+                        found.add(row.id());
+                    }
+                    for (Integer id : batch) {
+                        if (!found.contains(id)) state.remove(id);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to update the facets, retrying on the next run: {}", e.getMessage());
+            pendingIds.addAll(ids);
+        }
+    }
+
+    /**
+     * Rebuilds the facets from database, dropping the bitmaps left empty.
+     */
+    @Scheduled(cron = "0 45 * * * *")
+    @SuppressWarnings("unchecked")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return;
+
+        try {
+            var rebuilt = new State();
+            rebuilt.genreNames.putAll(readGenreNames());
+            for (MediaCategoryModel category : mediaCategoryRepository.findAll()) {
+                rebuilt.categoryNames.put(category.getId(), category.getTypeCategory());
+            }
+
+            var lastId = 0;
+            while (true) {
+                List<Object[]> batch = mediaRepository.findSuggestionRowsAfter(lastId, PageRequest.of(0, BATCH_SIZE));
+                if (batch.isEmpty()) break;
+
+                readRows(batch).forEach(rebuilt::put);
+                lastId = ((Number) batch.getLast()[0]).intValue();
+            }
+
+            lock.writeLock().lock();
+            try {
+                state = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // saved while the catalog was read, they may be older in the rebuilt state
+            refresh(refreshedWhileRebuilding);
+            refreshedWhileRebuilding.clear();
+
+            log.info("Facets rebuilt, {} medias", rebuilt.rows.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild the facets", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private Map<Integer, String> readGenreNames() {
+        Map<Integer, String> names = new HashMap<>();
+        for (GenreModel genre : genreRepository.findAll()) {
+            names.put(genre.getId(), genre.getName());
+        }
+
+        return names;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MediaRow> readRows(List<Object[]> mediaRows) {
+        if (mediaRows.isEmpty()) return List.of();
+
+        var ids = mediaRows.stream().map((row) -> ((Number) row[0]).intValue()).toList();
+        Map<Integer, List<Integer>> genres = new HashMap<>();
+        for (Object[] genre : (List<Object[]>) mediaRepository.findGenreRowsByIdIn(ids)) {
+            genres.computeIfAbsent(((Number) genre[0]).intValue(), (id) -> new ArrayList<>()).add(((Number) genre[1]).intValue());
+        }
+        Map<Integer, Integer> years = new HashMap<>();
+        for (Object[] airDate : (List<Object[]>) mediaRepository.findFirstAirDateRowsByIdIn(ids)) {
+            var date = (Date) airDate[1];
+            years.put(((Number) airDate[0]).intValue(), LocalDate.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneOffset.UTC).getYear());
+        }
+
+        var rows = new ArrayList<MediaRow>(mediaRows.size());
+        for (Object[] row : mediaRows) {
+            var id = ((Number) row[0]).intValue();
+            rows.add(new MediaRow(id, row[2] == null ? null : ((Number) row[2]).intValue(), genres.getOrDefault(id, List.of()), years.get(id)));
+        }
+
+        return rows;
+    }
+}
@@ -0,0 +1,168 @@
+package com.espacogeek.geek.services.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.data.api.MediaApi;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.services.MediaRefreshService;
+import com.espacogeek.geek.services.MediaService;
+import com.espacogeek.geek.services.TypeReferenceService;
+import com.espacogeek.geek.utils.Utils;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * A Implementation class of MediaRefreshService @see MediaRefreshService
+ * <p>
+ * The background refreshes run on virtual threads, at most <code>media.refresh.concurrency</code> at a time
+ * so a list of outdated medias doesn't flood the providers.
+ */
+@Service
+public class MediaRefreshServiceImpl implements MediaRefreshService {
+    private static final Logger log = LoggerFactory.getLogger(MediaRefreshServiceImpl.class);
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired @Qualifier("serieController")
+    private MediaDataController serieController;
+
+    @Autowired @Qualifier("movieController")
+    private MediaDataController movieController;
+
+    @Autowired @Qualifier("genericMediaDataController")
+    private MediaDataController genericMediaDataController;
+
+    @Autowired @Qualifier("gamesAndVNsAPI")
+    private MediaApi gamesAndVNsAPI;
+
+    @Autowired
+    private TypeReferenceService typeReferenceService;
+
+    @Value("${media.refresh.concurrency:4}")
+    private int concurrency;
+
+    private Semaphore permits;
+
+    // medias queued or being refreshed
+    private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    private void init() {
+        permits = new Semaphore(concurrency);
+    }
+
+    /**
+     * @see MediaRefreshService#refresh(MediaModel)
+     */
+    @Override
+    public MediaModel refresh(MediaModel media) {
+        switch (media.getMediaCategory().getId()) {
+            case MediaDataController.GAME_ID:
+            case MediaDataController.VN_ID:
+                return Utils
+                        .updateGenericMedia(Arrays.asList(media), genericMediaDataController,
+                                typeReferenceService.findById(MediaDataController.IGDB_ID).get(), gamesAndVNsAPI)
+                        .getFirst();
+
+            case MediaDataController.SERIE_ID:
+                return Utils.updateMedia(Arrays.asList(media), serieController).getFirst();
+
+            case MediaDataController.MOVIE_ID:
+                return Utils.updateMedia(Arrays.asList(media), movieController).getFirst();
+
+            default:
+                return media;
+        }
+    }
+
+    /**
+     * @see MediaRefreshService#refreshInBackground(Collection)
+     *
+     * The games and visual novels are refreshed together, IGDB is asked for all of them with one request
+     * per 500 medias, see {@link MediaApi#getDetails(List)}. The TMDB medias are refreshed one by one.
+     */
+    @Override
+    public void refreshInBackground(Collection<Integer> ids) {
+        var queued = ids.stream().filter((id) -> id != null && refreshing.add(id)).toList();
+        if (queued.isEmpty()) return;
+
+        Thread.ofVirtual().name("media-refresh").start(() -> {
+            List<MediaModel> igdbMedias = new ArrayList<>();
+            for (Integer id : queued) {
+                try {
+                    // the refresh reads every association, load them all before leaving the transaction
+                    var media = mediaService.findByIdEager(id).orElse(null);
+                    if (media == null) {
+                        refreshing.remove(id);
+                    } else if (isIgdbMedia(media)) {
+                        igdbMedias.add(media);
+                    } else {
+                        refreshAlone(media);
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to load media id={} to refresh: {}", id, e.getMessage());
+                    refreshing.remove(id);
+                }
+            }
+
+            if (!igdbMedias.isEmpty()) refreshIgdbMedias(igdbMedias);
+        });
+    }
+
+    private static boolean isIgdbMedia(MediaModel media) {
+        var category = media.getMediaCategory().getId();
+        return category == MediaDataController.GAME_ID || category == MediaDataController.VN_ID;
+    }
+
+    private void refreshAlone(MediaModel media) {
+        Thread.ofVirtual().name("media-refresh").start(() -> {
+            try {
+                permits.acquire();
+                try {
+                    refresh(media);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Failed to refresh media id={}: {}", media.getId(), e.getMessage());
+            } finally {
+                refreshing.remove(media.getId());
+            }
+        });
+    }
+
+    private void refreshIgdbMedias(List<MediaModel> medias) {
+        try {
+            permits.acquire();
+            try {
+                Utils.updateGenericMedia(medias, genericMediaDataController,
+                        typeReferenceService.findById(MediaDataController.IGDB_ID).get(), gamesAndVNsAPI);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to refresh {} games and visual novels: {}", medias.size(), e.getMessage());
+        } finally {
+            medias.forEach((media) -> refreshing.remove(media.getId()));
+        }
+    }
+}
@@ -1,20 +1,24 @@
 package com.espacogeek.geek.services.impl;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.Map;
 import java.util.Arrays;
+import java.util.function.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
 import com.espacogeek.geek.data.MediaDataController;
@@ -24,12 +28,17 @@ import com.espacogeek.geek.models.MediaModel;
 import com.espacogeek.geek.models.TypeReferenceModel;
 import com.espacogeek.geek.repositories.MediaRepository;
 import com.espacogeek.geek.repositories.MediaRepositoryCustom;
-import com.espacogeek.geek.services.MediaCategoryService;
+import com.espacogeek.geek.repositories.MediaRepositoryCustom.Keyset;
+import com.espacogeek.geek.services.MediaFacetService;
+import com.espacogeek.geek.services.MediaIndexService;
+import com.espacogeek.geek.services.MediaSuggestService;
 import com.espacogeek.geek.services.MediaService;
 import com.espacogeek.geek.services.TypeReferenceService;
+import com.espacogeek.geek.types.MediaCursor;
+import com.espacogeek.geek.types.MediaFilter;
+import com.espacogeek.geek.types.SearchGroup;
+import com.espacogeek.geek.utils.TtlCache;
 import com.espacogeek.geek.utils.Utils;
-import jakarta.persistence.ManyToMany;
-import jakarta.persistence.OneToMany;
 import jakarta.transaction.Transactional;
 
 /**
@@ -37,13 +46,19 @@ import jakarta.transaction.Transactional;
  */
 @Service
 public class MediaServiceImpl implements MediaService {
+    private static final String SEARCH_MODE_INDEX = "index";
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int COUNT_CACHE_SIZE = 1000;
+    private static final Duration COUNT_CACHE_TTL = Duration.ofMinutes(1);
+    private static final int SEARCH_CACHE_SIZE = 5000;
+    private static final Duration SEARCH_CACHE_TTL = Duration.ofMinutes(10);
+    private static final List<String> ALL_ASSOCIATIONS = List.of("externalReference", "genre", "alternativeTitles", "season", "company", "people");
+
     @SuppressWarnings("rawtypes")
     @Autowired
     private MediaRepository mediaRepository;
 
-    @Autowired
-    private MediaCategoryService mediaCategoryService;
-
     @Autowired @Qualifier("serieController")
     private MediaDataController serieController;
 
@@ -55,6 +70,37 @@ public class MediaServiceImpl implements MediaService {
 
     @Autowired
     private TypeReferenceService typeReferenceService;
+
+    @Autowired
+    private MediaIndexService mediaIndexService;
+
+    @Autowired
+    private MediaSuggestService mediaSuggestService;
+
+    @Autowired
+    private MediaFacetService mediaFacetService;
+
+    @Value("${media.search.mode:database}")
+    private String searchMode;
+
+    /**
+     * Key of a cached search: the category, the normalized search and the position of the page,
+     * <code>null</code> for the count of the search.
+     */
+    private record SearchKey(Integer category, String search, String position) {
+    }
+
+    /**
+     * IDs of a page of search results, in order, hydrated on every read.
+     */
+    private record IdPage(List<Integer> ids, boolean hasNext, MediaCursor endCursor) {
+    }
+
+    // totals per category and normalized search, a page turn or a repeated search doesn't count again
+    private final TtlCache<SearchKey, Long> countCache = new TtlCache<>(COUNT_CACHE_SIZE, COUNT_CACHE_TTL);
+
+    // pages of popular searches, dropped when a media or title of the category is inserted or renamed
+    private final TtlCache<SearchKey, IdPage> searchCache = new TtlCache<>(SEARCH_CACHE_SIZE, SEARCH_CACHE_TTL);
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MediaServiceImpl.class);
 
     /**
@@ -63,7 +109,12 @@ public class MediaServiceImpl implements MediaService {
     @SuppressWarnings("unchecked")
     @Override
     public MediaModel save(MediaModel media) {
-        return (MediaModel) this.mediaRepository.save(media);
+        var saved = (MediaModel) this.mediaRepository.save(media);
+        mediaIndexService.reindex(List.of(saved.getId()));
+        mediaSuggestService.refresh(List.of(saved.getId()));
+        mediaFacetService.refresh(List.of(saved.getId()));
+
+        return saved;
     }
 
     /**
@@ -72,53 +123,188 @@ public class MediaServiceImpl implements MediaService {
     @SuppressWarnings("unchecked")
     @Override
     public List<MediaModel> saveAll(List<MediaModel> medias) {
-        return this.mediaRepository.saveAll(medias);
+        List<MediaModel> saved = this.mediaRepository.saveAll(medias);
+        var ids = saved.stream().map(MediaModel::getId).toList();
+        mediaIndexService.reindex(ids);
+        mediaSuggestService.refresh(ids);
+        mediaFacetService.refresh(ids);
+
+        return saved;
     }
 
     /**
-     * @see MediaService#findSerieByIdOrName(Integer, String, Pageable)
+     * @see MediaService#findSerieByIdOrName(Integer, String, Map<String, List<String>>, Pageable, boolean)
      */
     @SuppressWarnings("unchecked")
     @Override
-    public Page<MediaModel> findSerieByIdOrName(Integer id, String name, Pageable pageable) {
-        if (id != null) {
-            return (Page<MediaModel>) this.mediaRepository.findById(id).orElseGet(null);
+    public Slice<MediaModel> findSerieByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal) {
+        if (id != null) return findPageById(id, pageable);
+
+        return findProjected(name, MediaDataController.SERIE_ID, requestedFields, pageable, withTotal);
+    }
+
+    /**
+     * @see MediaService#findGameByIdOrName(Integer, String, Map<String, List<String>>, Pageable, boolean)
+     */
+    @Override
+    public Slice<MediaModel> findGameByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal) {
+        if (id != null) return findPageById(id, pageable);
+
+        return findProjected(name, MediaDataController.GAME_ID, requestedFields, pageable, withTotal);
+    }
+
+    /**
+     * @see MediaService#findVisualNovelByIdOrName(Integer, String, Map<String, List<String>>, Pageable, boolean)
+     */
+    @Override
+    public Slice<MediaModel> findVisualNovelByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal) {
+        if (id != null) return findPageById(id, pageable);
+
+        return findProjected(name, MediaDataController.VN_ID, requestedFields, pageable, withTotal);
+    }
+
+    /**
+     * Search the medias of the category by name or alternative title reading only the requested columns,
+     * and the requested associations with one query each for the whole page.
+     * <p>
+     * The IDs of the page are cached, a repeated search only hydrates them.
+     */
+    @SuppressWarnings("unchecked")
+    private Slice<MediaModel> findProjected(String name, Integer category, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal) {
+        if (isIndexSearch()) return findByIndex(name, category, pageable);
+
+        var key = new SearchKey(category, normalizeSearch(name), pageable.getPageNumber() + ":" + pageable.getPageSize());
+        var searched = new AtomicReference<Slice<MediaModel>>();
+        var page = searchCache.get(key, () -> {
+            Slice<MediaModel> slice = mediaRepository.findMediaByNameOrAlternativeTitleAndMediaCategory(name, name, category, requestedFields, pageable);
+            searched.set(slice);
+            return new IdPage(slice.getContent().stream().map(MediaModel::getId).toList(), slice.hasNext(), null);
+        });
+
+        Slice<MediaModel> results = searched.get() != null ? searched.get() : new SliceImpl<>(hydrate(page.ids(), requestedFields), pageable, page.hasNext());
+
+        return withTotal(results, name, category, withTotal);
+    }
+
+    /**
+     * Loads the medias of the IDs in one query, keeping the order of the IDs.
+     */
+    @SuppressWarnings("unchecked")
+    private List<MediaModel> hydrate(List<Integer> ids, Map<String, List<String>> requestedFields) {
+        Map<Integer, MediaModel> medias = new HashMap<>();
+        for (Object media : this.mediaRepository.findMediaByIdIn(ids, requestedFields)) {
+            medias.put(((MediaModel) media).getId(), (MediaModel) media);
         }
 
-        return this.mediaRepository.findMediaByNameOrAlternativeTitleAndMediaCategory(name, name,
-                mediaCategoryService.findById(MediaDataController.SERIE_ID).get().getId(), pageable);
+        return ids.stream().map(medias::get).filter((media) -> media != null).toList();
     }
 
     /**
-     * @see MediaService#findSerieByIdOrName(Integer, String, Map<String, List<String>>, Pageable)
+     * The search as cached: the search key, marked with how it's searched since short and long searches with
+     * the same key match differently.
      */
+    private static String normalizeSearch(String name) {
+        var key = Utils.normalizeSearchKey(name);
+        if (key == null || key.isEmpty()) return "";
+
+        return (MediaRepositoryCustom.isFullTextSearch(name) ? "fulltext:" : "prefix:") + key;
+    }
+
     @SuppressWarnings("unchecked")
+    private Page<MediaModel> findPageById(Integer id, Pageable pageable) {
+        List<MediaModel> medias = this.mediaRepository.findById(id).stream().toList();
+        return new PageImpl<>(medias, pageable, medias.size());
+    }
+
+    /**
+     * Turn the Slice into a Page with the total of the search, counted at most once per
+     * {@link #COUNT_CACHE_TTL} for each category and normalized search. Counts stop at
+     * {@link MediaService#MAX_EXACT_COUNT} + 1.
+     */
+    private Slice<MediaModel> withTotal(Slice<MediaModel> medias, String name, Integer category, boolean withTotal) {
+        if (!withTotal) return medias;
+
+        // the first page without a next one already knows its total
+        if (!medias.hasNext() && medias.getNumber() == 0) return new PageImpl<>(medias.getContent(), medias.getPageable(), medias.getNumberOfElements());
+
+        var total = countCache.get(new SearchKey(category, normalizeSearch(name), null),
+                () -> this.mediaRepository.countMediaByNameAndMediaCategory(name, category, MAX_EXACT_COUNT + 1));
+
+        return new PageImpl<>(medias.getContent(), medias.getPageable(), total);
+    }
+
+    /**
+     * @see MediaService#findByNameAfter(String, Integer, String, Integer, Map<String, List<String>>)
+     */
     @Override
-    public Page<MediaModel> findSerieByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable) {
-        var medias = new ArrayList<MediaModel>();
+    public Keyset findByNameAfter(String name, Integer category, String after, Integer first, Map<String, List<String>> requestedFields) {
+        var size = first == null || first <= 0 ? DEFAULT_PAGE_SIZE : Math.min(first, MAX_PAGE_SIZE);
+        var cursor = MediaCursor.decode(after);
+
+        var key = new SearchKey(category, normalizeSearch(name), (cursor == null ? "" : cursor.encode()) + ":" + size);
+        var searched = new AtomicReference<Keyset>();
+        var page = searchCache.get(key, () -> {
+            var keyset = this.mediaRepository.findMediaByNameAfter(name, category, cursor, size, requestedFields);
+            searched.set(keyset);
+            return new IdPage(keyset.content().stream().map(MediaModel::getId).toList(), keyset.hasNext(), keyset.endCursor());
+        });
+
+        return searched.get() != null ? searched.get() : new Keyset(hydrate(page.ids(), requestedFields), page.endCursor(), page.hasNext());
+    }
 
-        if (id != null) {
-            medias.add((MediaModel) this.mediaRepository.findById(id).orElseGet(null));
-            return new PageImpl<>(medias, pageable, medias.size());
-        }
+    /**
+     * @see MediaService#findByFilterAfter(MediaFilter, String, Integer, Map<String, List<String>>)
+     */
+    @Override
+    public Keyset findByFilterAfter(MediaFilter filter, String after, Integer first, Map<String, List<String>> requestedFields) {
+        var size = first == null || first <= 0 ? DEFAULT_PAGE_SIZE : Math.min(first, MAX_PAGE_SIZE);
+        var cursor = MediaCursor.decode(after);
 
-        var results = mediaRepository.findMediaByNameOrAlternativeTitleAndMediaCategory(name, name, mediaCategoryService.findById(MediaDataController.SERIE_ID).get().getId(), requestedFields, pageable);
+        var ids = mediaFacetService.findIds(filter, cursor == null ? 0 : cursor.id(), size + 1);
+        var hasNext = ids.size() > size;
+        if (hasNext) ids = ids.subList(0, size);
 
-        return results;
+        var medias = hydrate(ids, requestedFields);
+        var endCursor = ids.isEmpty() ? null : new MediaCursor("", ids.getLast());
+
+        return new Keyset(medias, endCursor, hasNext);
     }
 
     /**
-     * @see MediaService#findGameByIdOrName(Integer, String, Pageable)
+     * @see MediaService#searchByCategories(String, List, Integer, Map<String, List<String>>)
      */
     @SuppressWarnings("unchecked")
     @Override
-    public Page<MediaModel> findGameByIdOrName(Integer id, String name, Pageable pageable) {
-        if (id != null) {
-            return (Page<MediaModel>) this.mediaRepository.findById(id).orElseGet(null);
+    public List<SearchGroup> searchByCategories(String name, List<Integer> categories, Integer limit, Map<String, List<String>> requestedFields) {
+        var size = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        // one row more per category tells whether it has more matches
+        Map<Integer, List<MediaModel>> groups = this.mediaRepository.findMediaByNameGroupedByCategory(name, categories, size + 1, requestedFields);
+
+        return categories.stream().map((category) -> {
+            List<MediaModel> medias = groups.getOrDefault(category, List.of());
+            return new SearchGroup(category, medias.size() > size ? medias.subList(0, size) : medias, medias.size() > size);
+        }).toList();
+    }
+
+    private boolean isIndexSearch() {
+        return SEARCH_MODE_INDEX.equals(searchMode);
+    }
+
+    /**
+     * Rank the medias with the search index and hydrate the page in one query, keeping the rank order.
+     */
+    @SuppressWarnings("unchecked")
+    private Page<MediaModel> findByIndex(String name, Integer category, Pageable pageable) {
+        var ids = mediaIndexService.search(name, category, pageable);
+        if (ids.isEmpty()) return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+
+        Map<Integer, MediaModel> medias = new HashMap<>();
+        for (Object media : this.mediaRepository.findAllById(ids.getContent())) {
+            medias.put(((MediaModel) media).getId(), (MediaModel) media);
         }
 
-        return this.mediaRepository.findMediaByNameOrAlternativeTitleAndMediaCategory(name, name,
-                mediaCategoryService.findById(MediaDataController.GAME_ID).get().getId(), pageable);
+        var content = ids.getContent().stream().map(medias::get).filter((media) -> media != null).toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
     }
 
     /**
@@ -143,45 +329,36 @@ public class MediaServiceImpl implements MediaService {
     }
 
     /**
-     * @see MediaService#findByIdEager(Integer)
+     * @see MediaService#findAllById(List)
      */
     @SuppressWarnings("unchecked")
     @Override
-    @Transactional
-    public Optional<MediaModel> findByIdEager(Integer id) {
-        var fieldList = new ArrayList<Field>();
-        MediaModel media = (MediaModel) mediaRepository.findById(id).orElseGet(null);
-        if (media == null) return Optional.empty();
-
-        for (Field field : media.getClass().getDeclaredFields()) {
-            field.setAccessible(true);
-            if (field.isAnnotationPresent(OneToMany.class) || field.isAnnotationPresent(ManyToMany.class)) {
-                fieldList.add(field);
-            }
-        }
-
-        for (Field field : fieldList) {
-            try {
-                String getterName = "get" + capitalize(field.getName());
-                Method getter = media.getClass().getMethod(getterName);
-                var fieldValue = getter.invoke(media);
-                if (fieldValue instanceof List) {
-                    ((List<?>) fieldValue).size(); // This will initialize the collection
-                }
-            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                e.printStackTrace();
-            }
+    public List<MediaModel> findAllById(List<Integer> ids) {
+        Map<Integer, MediaModel> medias = new HashMap<>();
+        for (Object media : this.mediaRepository.findMediaByIdIn(ids.stream().distinct().toList(), null)) {
+            medias.put(((MediaModel) media).getId(), (MediaModel) media);
         }
 
-        return Optional.ofNullable(media);
+        return ids.stream().map(medias::get).toList();
     }
 
-    private String capitalize(String str) {
-        if (str == null || str.isEmpty()) {
-            return str;
-        }
-        return Character.toUpperCase(str.charAt(0)) + str.substring(1);
+    /**
+     * @see MediaService#findByIdEager(Integer)
+     */
+    @Override
+    @Transactional
+    public Optional<MediaModel> findByIdEager(Integer id) {
+        return findByIdEager(id, ALL_ASSOCIATIONS);
+    }
 
+    /**
+     * @see MediaService#findByIdEager(Integer, Collection)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    @Transactional
+    public Optional<MediaModel> findByIdEager(Integer id, Collection<String> associations) {
+        return this.mediaRepository.findByIdWithAssociations(id, associations);
     }
 
     /**
@@ -243,17 +420,35 @@ public class MediaServiceImpl implements MediaService {
         return Optional.empty();
     }
 
+    /**
+     * @see MediaService#findMovieByIdOrName(Integer, String, Map<String, List<String>>, Pageable, boolean)
+     */
     @Override
-    public Page<MediaModel> findMovieByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable) {
-        var medias = new ArrayList<MediaModel>();
-
-        if (id != null) {
-            medias.add((MediaModel) this.mediaRepository.findById(id).orElseGet(null));
-            return new PageImpl<>(medias, pageable, medias.size());
-        }
+    public Slice<MediaModel> findMovieByIdOrName(Integer id, String name, Map<String, List<String>> requestedFields, Pageable pageable, boolean withTotal) {
+        if (id != null) return findPageById(id, pageable);
 
-        var results = mediaRepository.findMediaByNameOrAlternativeTitleAndMediaCategory(name, name, mediaCategoryService.findById(MediaDataController.MOVIE_ID).get().getId(), pageable);
+        var results = findProjected(name, MediaDataController.MOVIE_ID, requestedFields, pageable, withTotal);
 
         return results;
     }
+
+    /**
+     * @see MediaService#markStale(Collection)
+     */
+    @Override
+    public void markStale(Collection<Integer> ids) {
+        if (ids.isEmpty()) return;
+        mediaRepository.clearUpdateAtByIdIn(ids);
+    }
+
+    /**
+     * @see MediaService#invalidateSearches(Integer)
+     */
+    @Override
+    public void invalidateSearches(Integer category) {
+        // browsing every category (null) is affected by any of them
+        Predicate<SearchKey> affected = (key) -> category == null || key.category() == null || key.category().equals(category);
+        searchCache.invalidateIf(affected);
+        countCache.invalidateIf(affected);
+    }
 }
@@ -0,0 +1,367 @@
+package com.espacogeek.geek.services.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.espacogeek.geek.exception.GenericException;
+import com.espacogeek.geek.repositories.AlternativeTitlesRepository;
+import com.espacogeek.geek.repositories.MediaRepository;
+import com.espacogeek.geek.services.MediaSuggestService;
+import com.espacogeek.geek.types.Suggestion;
+import com.espacogeek.geek.utils.Utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A Implementation class of MediaSuggestService @see MediaSuggestService
+ * <p>
+ * One {@link SuggestionTrie} per category is kept in memory. Saved medias are applied every second, the
+ * entries of an updated media are replaced and the tops along their keys refilled. The catalog is written
+ * to a snapshot file every 10 minutes and on shutdown, and read back on startup, so the suggestions are
+ * ready without reading the database.
+ */
+@Service
+public class MediaSuggestServiceImpl implements MediaSuggestService {
+    private static final int SNAPSHOT_FORMAT = 1;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(MediaSuggestServiceImpl.class);
+
+    @SuppressWarnings("rawtypes")
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private AlternativeTitlesRepository alternativeTitlesRepository;
+
+    @Value("${media.suggest.snapshot.path:./data/media-suggest.snapshot}")
+    private String snapshotPath;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Integer> pendingIds = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> refreshedWhileRebuilding = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile State state = new State();
+    private volatile boolean loaded;
+
+    /**
+     * Title data of one media, the source of its entries and of the snapshot.
+     */
+    private record MediaRow(int id, String name, Integer categoryId, double popularity, List<String> titles) {
+    }
+
+    private static final class State {
+        private final Map<Integer, SuggestionTrie> tries = new HashMap<>();
+        private final Map<Integer, MediaRow> rows = new HashMap<>();
+        private final Map<Integer, Integer> versions = new HashMap<>();
+
+        private void put(MediaRow row) {
+            removeEntries(rows.get(row.id()));
+            var version = versions.merge(row.id(), 1, Integer::sum);
+            rows.put(row.id(), row);
+            if (row.categoryId() == null) return;
+
+            var trie = tries.computeIfAbsent(row.categoryId(), (category) -> new SuggestionTrie());
+            for (Map.Entry<String, String> key : keys(row).entrySet()) {
+                trie.insert(key.getKey(), new SuggestionTrie.Entry(row.id(), version, new Suggestion(row.id(), row.name(), key.getValue(), row.categoryId(), row.popularity())));
+            }
+        }
+
+        private void remove(Integer id) {
+            removeEntries(rows.remove(id));
+            versions.merge(id, 1, Integer::sum);
+        }
+
+        /**
+         * Removes the entries of the previous version of the media, so the tops are refilled with live ones.
+         */
+        private void removeEntries(MediaRow old) {
+            if (old == null || old.categoryId() == null) return;
+
+            var trie = tries.get(old.categoryId());
+            if (trie == null) return;
+            for (String key : keys(old).keySet()) {
+                trie.remove(key, old.id());
+            }
+        }
+
+        /**
+         * The normalized keys of the media, with the name or alternative title of each.
+         */
+        private static Map<String, String> keys(MediaRow row) {
+            Map<String, String> keys = new LinkedHashMap<>();
+            var name = Utils.normalizeSearchKey(row.name());
+            if (name != null && !name.isEmpty()) keys.put(name, row.name());
+
+            for (String title : row.titles()) {
+                var key = Utils.normalizeSearchKey(title);
+                if (key != null && !key.isEmpty()) keys.putIfAbsent(key, title);
+            }
+
+            return keys;
+        }
+
+        private boolean isLive(SuggestionTrie.Entry entry) {
+            var version = versions.get(entry.mediaId());
+            return version != null && version == entry.version() && rows.containsKey(entry.mediaId());
+        }
+    }
+
+    @PostConstruct
+    private void init() {
+        var snapshot = Path.of(snapshotPath);
+        if (!Files.exists(snapshot)) return;
+
+        try {
+            state = readSnapshot(snapshot);
+            loaded = true;
+            log.info("Suggestions loaded from snapshot, {} medias", state.rows.size());
+        } catch (IOException e) {
+            log.warn("Failed to read the suggestions snapshot, rebuilding from database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the suggestions from database in background when no snapshot was loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildWhenEmpty() {
+        if (loaded) return;
+
+        Thread.ofVirtual().name("media-suggest-build").start(this::rebuild);
+    }
+
+    /**
+     * Writes the snapshot every 10 minutes, so a crash loses at most the last saves instead of the catalog.
+     */
+    @Scheduled(fixedDelay = 10 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    @PreDestroy
+    public void saveSnapshot() {
+        if (!loaded) return;
+
+        try {
+            writeSnapshot(Path.of(snapshotPath));
+        } catch (IOException e) {
+            log.warn("Failed to write the suggestions snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @see MediaSuggestService#suggest(String, Integer, int)
+     */
+    @Override
+    public List<Suggestion> suggest(String prefix, Integer category, int limit) {
+        if (limit > SuggestionTrie.TOP_SIZE) throw new GenericException("The limit of suggestions is " + SuggestionTrie.TOP_SIZE);
+
+        var key = Utils.normalizeSearchKey(prefix);
+        if (key == null || key.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            var current = state;
+            if (category != null) {
+                var trie = current.tries.get(category);
+                return trie == null ? List.of() : trie.find(key, limit, current::isLive);
+            }
+
+            var suggestions = new ArrayList<Suggestion>();
+            for (SuggestionTrie trie : current.tries.values()) {
+                suggestions.addAll(trie.find(key, limit, current::isLive));
+            }
+            suggestions.sort(Comparator.comparingDouble(Suggestion::getPopularity).reversed());
+
+            return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @see MediaSuggestService#refresh(Collection)
+     */
+    @Override
+    public void refresh(Collection<Integer> ids) {
+        ids.stream().filter((id) -> id != null).forEach(pendingIds::add);
+    }
+
+    /**
+     * Applies the medias saved since the last run.
+     */
+    @Scheduled(fixedDelay = 1000)
+    @SuppressWarnings({ "unused", "unchecked" })
+    private void flushPending() {
+        if (pendingIds.isEmpty()) return;
+
+        var ids = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(ids);
+        if (rebuilding.get()) refreshedWhileRebuilding.addAll(ids);
+
+        try {
+            for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                var batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+                var rows = readRows(mediaRepository.findSuggestionRowsByIdIn(batch));
+                var found = new HashSet<Integer>();
+
+                lock.writeLock().lock();
+                try {
+                    for (MediaRow row : rows) {
+                        state.put(row);
+                        found.add(row.id());
+                    }
+                    for (Integer id : batch) {
+                        if (!found.contains(id)) state.remove(id);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to update the suggestions, retrying on the next run: {}", e.getMessage());
+            pendingIds.addAll(ids);
+        }
+    }
+
+    /**
+     * Rebuilds the suggestions from database, dropping the entries of old versions.
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    @SuppressWarnings("unchecked")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return;
+
+        try {
+            var rebuilt = new State();
+            var lastId = 0;
+            while (true) {
+                List<Object[]> batch = mediaRepository.findSuggestionRowsAfter(lastId, PageRequest.of(0, BATCH_SIZE));
+                if (batch.isEmpty()) break;
+
+                readRows(batch).forEach(rebuilt::put);
+                lastId = ((Number) batch.getLast()[0]).intValue();
+            }
+
+            lock.writeLock().lock();
+            try {
+                state = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // saved while the catalog was read, they may be older in the rebuilt state
+            refresh(refreshedWhileRebuilding);
+            refreshedWhileRebuilding.clear();
+            loaded = true;
+
+            log.info("Suggestions rebuilt, {} medias", rebuilt.rows.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild the suggestions", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private List<MediaRow> readRows(List<Object[]> mediaRows) {
+        if (mediaRows.isEmpty()) return List.of();
+
+        var ids = mediaRows.stream().map((row) -> ((Number) row[0]).intValue()).toList();
+        Map<Integer, List<String>> titles = new HashMap<>();
+        for (Object[] title : alternativeTitlesRepository.findTitlesByMediaIdIn(ids)) {
+            if (title[1] != null) titles.computeIfAbsent(((Number) title[0]).intValue(), (id) -> new ArrayList<>()).add((String) title[1]);
+        }
+
+        var rows = new ArrayList<MediaRow>(mediaRows.size());
+        for (Object[] row : mediaRows) {
+            var id = ((Number) row[0]).intValue();
+            rows.add(new MediaRow(id, (String) row[1], row[2] == null ? null : ((Number) row[2]).intValue(),
+                    row[3] == null ? 0d : ((Number) row[3]).doubleValue(), titles.getOrDefault(id, List.of())));
+        }
+
+        return rows;
+    }
+
+    private void writeSnapshot(Path path) throws IOException {
+        List<MediaRow> rows;
+        lock.readLock().lock();
+        try {
+            rows = new ArrayList<>(state.rows.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (rows.isEmpty()) return;
+
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (var output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temporary))))) {
+            output.writeInt(SNAPSHOT_FORMAT);
+            output.writeInt(rows.size());
+            for (MediaRow row : rows) {
+                output.writeInt(row.id());
+                output.writeUTF(row.name() == null ? "" : row.name());
+                output.writeInt(row.categoryId() == null ? -1 : row.categoryId());
+                output.writeDouble(row.popularity());
+                output.writeInt(row.titles().size());
+                for (String title : row.titles()) {
+                    output.writeUTF(title);
+                }
+            }
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private State readSnapshot(Path path) throws IOException {
+        var snapshot = new State();
+
+        try (var input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path))))) {
+            if (input.readInt() != SNAPSHOT_FORMAT) throw new IOException("Unknown snapshot format");
+
+            var size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                var id = input.readInt();
+                var name = input.readUTF();
+                var categoryId = input.readInt();
+                var popularity = input.readDouble();
+                var titleCount = input.readInt();
+                var titles = new ArrayList<String>(titleCount);
+                for (int j = 0; j < titleCount; j++) {
+                    titles.add(input.readUTF());
+                }
+                snapshot.put(new MediaRow(id, name, categoryId == -1 ? null : categoryId, popularity, titles));
+            }
+        }
+
+        return snapshot;
+    }
+}
@@ -0,0 +1,102 @@
+package com.espacogeek.geek.services.impl;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.services.MediaService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Drops the cached searches of a category when a media or alternative title of it is inserted or renamed,
+ * after the transaction commits so the next search reads the new rows. Updates that don't change the name
+ * or the category, like the provider refreshes of covers and seasons, keep the cache.
+ */
+@Component
+public class SearchCacheInvalidationListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired @Lazy
+    private MediaService mediaService;
+
+    @PostConstruct
+    private void register() {
+        var registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (isSearched(event.getEntity())) mediaService.invalidateSearches(categoryOf(event.getEntity()));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!isSearched(event.getEntity())) return;
+
+        var dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            mediaService.invalidateSearches(null); // changes unknown
+            return;
+        }
+
+        var properties = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            switch (properties[index]) {
+                case "name", "searchKey" -> mediaService.invalidateSearches(categoryOf(event.getEntity()));
+                case "mediaCategory", "media" -> {
+                    // moved, the old category loses it too
+                    mediaService.invalidateSearches(categoryOf(event.getEntity()));
+                    mediaService.invalidateSearches(categoryOf(event.getOldState() == null ? null : event.getOldState()[index]));
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        var entityClass = persister.getMappedClass();
+        return entityClass == MediaModel.class || entityClass == AlternativeTitleModel.class;
+    }
+
+    private static boolean isSearched(Object entity) {
+        return entity instanceof MediaModel || entity instanceof AlternativeTitleModel;
+    }
+
+    /**
+     * The ID of the category of a media, an alternative title or a category, <code>null</code> when unknown
+     * so every search is dropped.
+     */
+    private static Integer categoryOf(Object value) {
+        if (value instanceof AlternativeTitleModel title) return categoryOf(title.getMedia());
+        if (value instanceof MediaModel media) return categoryOf(media.getMediaCategory());
+        if (value instanceof MediaCategoryModel category) return category.getId();
+
+        return null;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 
 import com.espacogeek.geek.models.SeasonModel;
 import com.espacogeek.geek.repositories.SeasonRepository;
+import com.espacogeek.geek.services.MediaFacetService;
 import com.espacogeek.geek.services.SeasonService;
 
 @Service
@@ -14,8 +15,15 @@ public class SeasonServiceImpl implements SeasonService {
     @Autowired
     private SeasonRepository seasonRepository;
 
+    @Autowired
+    private MediaFacetService mediaFacetService;
+
     @Override
     public List<SeasonModel> saveAll(List<SeasonModel> seasons) {
-        return seasonRepository.saveAll(seasons);
+        var saved = seasonRepository.saveAll(seasons);
+        // the year facet is the year of the first season
+        mediaFacetService.refresh(saved.stream().filter((season) -> season.getMedia() != null).map((season) -> season.getMedia().getId()).distinct().toList());
+
+        return saved;
     }
 }
@@ -0,0 +1,180 @@
+package com.espacogeek.geek.services.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.espacogeek.geek.types.Suggestion;
+
+/**
+ * Radix trie of normalized titles where every node keeps the most popular entries below it, so a lookup
+ * is a walk of the prefix and a copy of at most {@value #TOP_SIZE} entries. The entries are also kept on
+ * the node where their key ends, so the tops along a key can be refilled when an entry is removed.
+ * <p>
+ * Not thread safe, the caller guards writes.
+ */
+final class SuggestionTrie {
+    static final int TOP_SIZE = 10;
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private final Node root = new Node("");
+
+    /**
+     * A suggestion of one media. The entries of an older <code>version</code> of the media are removed
+     * when it's updated, the lookups skip them too.
+     */
+    record Entry(int mediaId, int version, Suggestion suggestion) {
+    }
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>();
+        private Entry[] top = EMPTY;
+        private final List<Entry> terminal = new ArrayList<>(1); // entries whose key ends here
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Adds the entry under the normalized key.
+     */
+    void insert(String key, Entry entry) {
+        var node = root;
+        addTop(node, entry);
+
+        var i = 0;
+        while (i < key.length()) {
+            var child = node.children.get(key.charAt(i));
+
+            if (child == null) {
+                child = new Node(key.substring(i));
+                addTop(child, entry);
+                node.children.put(key.charAt(i), child);
+                node = child;
+                break;
+            }
+
+            var common = commonPrefixLength(child.label, key, i);
+            if (common < child.label.length()) {
+                // split the edge, the new middle node covers the same subtree as the old child
+                var middle = new Node(child.label.substring(0, common));
+                middle.top = child.top;
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+
+            addTop(child, entry);
+            i += common;
+            node = child;
+        }
+
+        node.terminal.add(entry);
+    }
+
+    /**
+     * Removes the entries of the media under the normalized key, and refills the tops along the key with
+     * the next most popular entries below them.
+     */
+    void remove(String key, int mediaId) {
+        var path = new ArrayList<Node>();
+        var node = root;
+        path.add(node);
+
+        var i = 0;
+        while (i < key.length()) {
+            var child = node.children.get(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) return;
+
+            i += child.label.length();
+            node = child;
+            path.add(node);
+        }
+
+        if (!node.terminal.removeIf((entry) -> entry.mediaId() == mediaId)) return;
+        for (int j = path.size() - 1; j >= 0; j--) {
+            refillTop(path.get(j));
+        }
+    }
+
+    /**
+     * Returns the most popular suggestions whose key starts with the normalized prefix.
+     *
+     * @param prefix normalized prefix.
+     * @param limit  max number of suggestions.
+     * @param live   filter of the entries still valid.
+     */
+    List<Suggestion> find(String prefix, int limit, Predicate<Entry> live) {
+        var node = root;
+        var i = 0;
+
+        while (i < prefix.length()) {
+            var child = node.children.get(prefix.charAt(i));
+            if (child == null) return List.of();
+
+            var length = Math.min(child.label.length(), prefix.length() - i);
+            if (!child.label.regionMatches(0, prefix, i, length)) return List.of();
+
+            i += length;
+            node = child;
+        }
+
+        var suggestions = new ArrayList<Suggestion>(Math.min(limit, node.top.length));
+        for (Entry entry : node.top) {
+            if (suggestions.size() >= limit) break;
+            if (live.test(entry)) suggestions.add(entry.suggestion());
+        }
+
+        return suggestions;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        var max = Math.min(label.length(), key.length() - offset);
+        var i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) i++;
+        return i;
+    }
+
+    /**
+     * Rebuilds the top of the node from the entries ending on it and the tops of its children.
+     */
+    private static void refillTop(Node node) {
+        node.top = EMPTY;
+        for (Entry entry : node.terminal) {
+            addTop(node, entry);
+        }
+        for (Node child : node.children.values()) {
+            for (Entry entry : child.top) {
+                addTop(node, entry);
+            }
+        }
+    }
+
+    /**
+     * Keeps the node top sorted by popularity, with one entry per media. Arrays are replaced, never
+     * changed, because a split node starts sharing the array of the old child.
+     */
+    private static void addTop(Node node, Entry entry) {
+        var top = node.top;
+        var popularity = entry.suggestion().getPopularity();
+        var position = top.length;
+
+        for (int i = 0; i < top.length; i++) {
+            if (top[i].mediaId() == entry.mediaId()) return; // listed by other title
+            if (position == top.length && popularity > top[i].suggestion().getPopularity()) position = i;
+        }
+        if (position >= TOP_SIZE) return;
+
+        var size = Math.min(top.length + 1, TOP_SIZE);
+        var entries = new Entry[size];
+        System.arraycopy(top, 0, entries, 0, position);
+        entries[position] = entry;
+        System.arraycopy(top, position, entries, position + 1, size - position - 1);
+        node.top = entries;
+    }
+}
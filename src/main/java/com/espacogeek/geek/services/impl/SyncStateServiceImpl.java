@@ -0,0 +1,36 @@
+package com.espacogeek.geek.services.impl;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.espacogeek.geek.models.SyncStateModel;
+import com.espacogeek.geek.repositories.SyncStateRepository;
+import com.espacogeek.geek.services.SyncStateService;
+
+/**
+ * A Implementation class of SyncStateService @see SyncStateService
+ */
+@Service
+public class SyncStateServiceImpl implements SyncStateService {
+
+    @Autowired
+    private SyncStateRepository syncStateRepository;
+
+    /**
+     * @see SyncStateService#findByName(String)
+     */
+    @Override
+    public Optional<SyncStateModel> findByName(String name) {
+        return syncStateRepository.findById(name);
+    }
+
+    /**
+     * @see SyncStateService#save(SyncStateModel)
+     */
+    @Override
+    public SyncStateModel save(SyncStateModel syncState) {
+        return syncStateRepository.save(syncState);
+    }
+}
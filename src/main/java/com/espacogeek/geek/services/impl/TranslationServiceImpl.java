@@ -0,0 +1,60 @@
+package com.espacogeek.geek.services.impl;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.espacogeek.geek.models.MediaTranslationModel;
+import com.espacogeek.geek.models.SeasonTranslationModel;
+import com.espacogeek.geek.repositories.MediaTranslationRepository;
+import com.espacogeek.geek.repositories.SeasonTranslationRepository;
+import com.espacogeek.geek.services.TranslationService;
+
+/**
+ * A Implementation class of TranslationService @see TranslationService
+ */
+@Service
+public class TranslationServiceImpl implements TranslationService {
+
+    @Autowired
+    private MediaTranslationRepository mediaTranslationRepository;
+
+    @Autowired
+    private SeasonTranslationRepository seasonTranslationRepository;
+
+    /**
+     * @see TranslationService#findMediaTranslations(Collection, String)
+     */
+    @Override
+    public List<MediaTranslationModel> findMediaTranslations(Collection<Integer> mediaIds, String locale) {
+        if (mediaIds.isEmpty()) return List.of();
+        return mediaTranslationRepository.findAllByMediaIdInAndLocale(mediaIds, locale);
+    }
+
+    /**
+     * @see TranslationService#findSeasonTranslations(Collection, String)
+     */
+    @Override
+    public List<SeasonTranslationModel> findSeasonTranslations(Collection<Integer> mediaIds, String locale) {
+        if (mediaIds.isEmpty()) return List.of();
+        return seasonTranslationRepository.findAllByMediaIdInAndLocale(mediaIds, locale);
+    }
+
+    /**
+     * @see TranslationService#saveAllMediaTranslations(List)
+     */
+    @Override
+    public List<MediaTranslationModel> saveAllMediaTranslations(List<MediaTranslationModel> translations) {
+        return mediaTranslationRepository.saveAll(translations);
+    }
+
+    /**
+     * @see TranslationService#saveAllSeasonTranslations(List)
+     */
+    @Override
+    public List<SeasonTranslationModel> saveAllSeasonTranslations(List<SeasonTranslationModel> translations) {
+        return seasonTranslationRepository.saveAll(translations);
+    }
+}
@@ -0,0 +1,12 @@
+package com.espacogeek.geek.types;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FacetCount {
+    private Integer value; // ID of the category or genre, or the year
+    private String name;
+    private int count;
+}
@@ -0,0 +1,18 @@
+package com.espacogeek.geek.types;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Counts of the medias of each facet value. The counts of a facet apply the filters of the other facets
+ * only, so the client can show how many medias selecting another value of it would add.
+ */
+@Getter
+@AllArgsConstructor
+public class Facets {
+    private List<FacetCount> category;
+    private List<FacetCount> genre;
+    private List<FacetCount> year;
+}
@@ -0,0 +1,45 @@
+package com.espacogeek.geek.types;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.espacogeek.geek.exception.GenericException;
+
+/**
+ * Position of a media in a list read with keyset pagination. The clients receive it as an opaque string.
+ * <p>
+ * The sort key is the rank and relevance score, or popularity for short names, on searches by name and the
+ * name on browses, the ID breaks ties.
+ */
+public record MediaCursor(String sortKey, int id) {
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * @return the cursor as an opaque URL safe string.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sortKey + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a cursor returned by {@link #encode()}.
+     *
+     * @param cursor the opaque string.
+     * @return the cursor, or <code>null</code> when no cursor is provided.
+     * @throws GenericException when the cursor is invalid.
+     */
+    public static MediaCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separator = value.lastIndexOf(SEPARATOR);
+            if (separator < 0) throw new GenericException("Invalid cursor");
+
+            return new MediaCursor(value.substring(0, separator), Integer.parseInt(value.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new GenericException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.espacogeek.geek.types;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Filters of the browse, the values of a facet are combined with OR and the facets with AND.
+ */
+@Getter
+@Setter
+public class MediaFilter {
+    private List<Integer> category;
+    private List<Integer> genre;
+    private List<Integer> year; // year of the first air date
+}
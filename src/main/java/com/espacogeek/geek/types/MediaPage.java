@@ -13,6 +13,9 @@ public class MediaPage {
     private List<MediaModel> content;
     private int totalPages;
     private long totalElements;
+    private boolean totalEstimated; // totalElements is a lower bound, the matches were not all counted
     private int number;
     private int size;
+    private PageInfo pageInfo; // endCursor only on pages read with a cursor
+    private Facets facets; // only on browses with filters
 }
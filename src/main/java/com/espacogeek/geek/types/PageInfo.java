@@ -0,0 +1,15 @@
+package com.espacogeek.geek.types;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageInfo {
+    private boolean hasNextPage;
+    private String endCursor; // pass as "after" to read the next page
+}
@@ -0,0 +1,16 @@
+package com.espacogeek.geek.types;
+
+import java.util.List;
+
+import com.espacogeek.geek.models.MediaModel;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SearchGroup {
+    private Integer category;
+    private List<MediaModel> content; // best matches first
+    private boolean hasMore; // the category has more matches than the limit
+}
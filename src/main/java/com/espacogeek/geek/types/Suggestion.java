@@ -0,0 +1,14 @@
+package com.espacogeek.geek.types;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class Suggestion {
+    private Integer id;
+    private String name;
+    private String title; // name or alternative title matched by the prefix
+    private Integer categoryId;
+    private double popularity;
+}
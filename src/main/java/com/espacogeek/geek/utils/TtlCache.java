@@ -0,0 +1,86 @@
+package com.espacogeek.geek.utils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Small in-memory cache whose entries expire a fixed time after being loaded. When full, the least recently
+ * used entry is dropped.
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the values.
+ */
+public class TtlCache<K, V> {
+    private record Entry<T>(T value, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // bumped by every invalidation, a value loaded before one is not cached
+    private long generation;
+
+    /**
+     * @param maxSize the max number of entries kept.
+     * @param ttl     how long an entry is served after being loaded.
+     */
+    public TtlCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > TtlCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value cached for the key, loading it when missing or expired. The loader runs outside the
+     * lock, so concurrent misses of the same key may load it more than once. <code>null</code> values are
+     * not cached, nor values whose load overlapped an invalidation, since they may have been read before it.
+     *
+     * @param key    the key.
+     * @param loader loads the value on a miss.
+     * @return the cached or loaded value.
+     */
+    public V get(K key, Supplier<V> loader) {
+        var now = System.nanoTime();
+        long loadedGeneration;
+        synchronized (this) {
+            var entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - now > 0) return entry.value();
+            loadedGeneration = generation;
+        }
+
+        var value = loader.get();
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadedGeneration) entries.put(key, new Entry<>(value, now + ttlNanos));
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Drops the entries whose key matches.
+     *
+     * @param predicate selects the keys to drop.
+     */
+    public synchronized void invalidateIf(Predicate<? super K> predicate) {
+        generation++;
+        entries.keySet().removeIf(predicate);
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+}
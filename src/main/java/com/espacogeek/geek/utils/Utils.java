@@ -1,12 +1,16 @@
 package com.espacogeek.geek.utils;
 
 import java.lang.reflect.Field;
+import java.text.Normalizer;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -27,6 +31,12 @@ import jakarta.persistence.criteria.Root;
 
 @Component
 public abstract class Utils {
+    // length of the search_key columns, prefixes of this size are indexed whole
+    public static final int SEARCH_KEY_LENGTH = 255;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['\u2019]");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
 
     /**
      * Extracts the user ID from the given authentication object. The user ID is
@@ -71,7 +81,7 @@ public abstract class Utils {
      *         update was more than one day ago
      *         or if the update date is null), <code>false</code> otherwise
      */
-    private static Boolean updateMediaWhenLastTimeUpdateMoreThanOneDay(MediaModel media) {
+    public static Boolean updateMediaWhenLastTimeUpdateMoreThanOneDay(MediaModel media) {
         if (media == null)
             return false;
 
@@ -90,6 +100,10 @@ public abstract class Utils {
      * day ago. Use the given <code>mediaDataController</code> to update the
      * media.
      * <p>
+     * The stale medias are fetched together with {@link MediaApi#getDetails(List)},
+     * so providers that support multi-ID queries are called once per batch
+     * instead of once per media.
+     * <p>
      *
      * @param medias              the list of medias to update
      * @param mediaDataController the controller to update the media
@@ -100,16 +114,47 @@ public abstract class Utils {
     public static List<MediaModel> updateGenericMedia(List<MediaModel> medias, MediaDataController mediaDataController,
             TypeReferenceModel typeReference, MediaApi mediaApi) {
         List<MediaModel> updatedMedias = new ArrayList<>();
+        Map<MediaModel, Integer> staleMedias = new LinkedHashMap<>();
 
         for (MediaModel media : medias) {
-            updatedMedias.add(updateMediaWhenLastTimeUpdateMoreThanOneDay(media)
-                    ? mediaDataController.updateAllInformation(media, null, typeReference, mediaApi)
+            if (updateMediaWhenLastTimeUpdateMoreThanOneDay(media)) {
+                staleMedias.put(media, getReference(media, typeReference));
+            }
+        }
+
+        // fetch every stale media in as few provider requests as possible
+        var details = staleMedias.isEmpty() ? Map.<Integer, MediaModel>of()
+                : mediaApi.getDetails(staleMedias.values().stream().filter(Objects::nonNull).toList());
+
+        for (MediaModel media : medias) {
+            updatedMedias.add(staleMedias.containsKey(media)
+                    ? mediaDataController.updateAllInformation(media, details.get(staleMedias.get(media)), typeReference, mediaApi)
                     : media);
         }
 
         return medias;
     }
 
+    /**
+     * Returns the provider ID of the media for the given type reference.
+     *
+     * @param media         the media with its external references
+     * @param typeReference the provider
+     * @return the provider ID or <code>null</code> when the media has no
+     *         numeric reference for this provider
+     */
+    private static Integer getReference(MediaModel media, TypeReferenceModel typeReference) {
+        if (media.getExternalReference() == null) return null;
+
+        return media.getExternalReference().stream()
+                .filter(externalReference -> externalReference.getTypeReference().getId().equals(typeReference.getId()))
+                .map(externalReference -> externalReference.getReference())
+                .filter(reference -> reference != null && reference.matches("\\d+"))
+                .map(Integer::valueOf)
+                .findFirst()
+                .orElse(null);
+    }
+
     /**
      * Updates all medias in the list when the last time update is more than one
      * day ago.
@@ -189,6 +234,28 @@ public abstract class Utils {
                         }));
     }
 
+    /**
+     * Returns the requested fields below the given field, like {@link #getRequestedFields(DataFetchingEnvironment)}
+     * does for the top level. For a page of medias, <code>getRequestedFields(environment, "content")</code>
+     * returns the fields of <code>Media</code> requested by the client, with their subfields.
+     *
+     * @param environment the {@link DataFetchingEnvironment} of the field.
+     * @param parent      the name of the field whose selection is returned.
+     * @return a map of requested fields
+     */
+    public static Map<String, List<String>> getRequestedFields(DataFetchingEnvironment environment, String parent) {
+        return environment.getSelectionSet().getFields(parent + "/*").stream()
+                .collect(Collectors.toMap(
+                        SelectedField::getName,
+                        field -> field.getSelectionSet().getFields().stream()
+                                .map(SelectedField::getName)
+                                .collect(Collectors.toList()),
+                        (existing, replacement) -> {
+                            existing.addAll(replacement);
+                            return existing;
+                        }));
+    }
+
     /**
      * Checks if a given field is a joinable field in the media entity.
      *
@@ -242,7 +309,49 @@ public abstract class Utils {
         return pageable;
     }
 
+    /**
+     * Whether the client selected the totals of the page, <code>totalElements</code> or
+     * <code>totalPages</code>. The searches only count the matches when they are selected.
+     *
+     * @param dataFetchingEnvironment the DataFetchingEnvironment of a field returning a page.
+     * @return <code>true</code> when a total is selected.
+     */
+    public static boolean isTotalRequested(DataFetchingEnvironment dataFetchingEnvironment) {
+        var selectionSet = dataFetchingEnvironment.getSelectionSet();
+        return selectionSet.contains("totalElements") || selectionSet.contains("totalPages");
+    }
+
     public static String capitalize(String field) {
         return field.substring(0, 1).toUpperCase() + field.substring(1);
     };
+
+    /**
+     * Returns the search key of a title: accents removed, lower case and every run of punctuation or
+     * spaces replaced by one space. "Pokémon: Let's Go!" and "pokemon lets go" have the same key.
+     *
+     * @param text the title.
+     * @return the normalized title, or <code>null</code> when the title is <code>null</code>.
+     */
+    public static String normalizeSearchKey(String text) {
+        if (text == null) return null;
+
+        var withoutAccents = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        var withoutApostrophes = APOSTROPHES.matcher(withoutAccents.toLowerCase(Locale.ROOT)).replaceAll("");
+
+        return NON_ALPHANUMERIC.matcher(withoutApostrophes).replaceAll(" ").strip();
+    }
+
+    /**
+     * Returns the search key stored for a title, see {@link #normalizeSearchKey(String)}, cut to
+     * {@value #SEARCH_KEY_LENGTH} characters so it fits the indexed column.
+     *
+     * @param text the title.
+     * @return the search key, or <code>null</code> when the title has no letters or digits.
+     */
+    public static String toSearchKey(String text) {
+        var key = normalizeSearchKey(text);
+        if (key == null || key.isEmpty()) return null;
+
+        return key.length() > SEARCH_KEY_LENGTH ? key.substring(0, SEARCH_KEY_LENGTH).stripTrailing() : key;
+    }
 }
@@ -0,0 +1,55 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import com.espacogeek.geek.utils.Utils;
+
+/**
+ * Fills the search keys of the existing titles. The keys are normalized with {@link Utils#toSearchKey(String)},
+ * which MySQL can't do, so the rows are read and updated in batches by ID.
+ */
+public class V13__backfill_search_keys extends BaseJavaMigration {
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        var connection = context.getConnection();
+        backfill(connection, "espacogeekdb.medias", "id_media", "name_media");
+        backfill(connection, "espacogeekdb.alternative_titles", "id_alternative_title", "name_title");
+    }
+
+    private void backfill(Connection connection, String table, String idColumn, String nameColumn) throws SQLException {
+        var select = "SELECT " + idColumn + ", " + nameColumn + " FROM " + table + " WHERE " + idColumn + " > ? ORDER BY " + idColumn + " LIMIT " + BATCH_SIZE;
+        var update = "UPDATE " + table + " SET search_key = ? WHERE " + idColumn + " = ?";
+
+        try (PreparedStatement reader = connection.prepareStatement(select);
+                PreparedStatement writer = connection.prepareStatement(update)) {
+            var lastId = 0;
+            while (true) {
+                List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+                reader.setInt(1, lastId);
+                try (var result = reader.executeQuery()) {
+                    while (result.next()) {
+                        rows.add(new Object[] { result.getInt(1), result.getString(2) });
+                    }
+                }
+                if (rows.isEmpty()) break;
+
+                for (Object[] row : rows) {
+                    writer.setString(1, Utils.toSearchKey((String) row[1]));
+                    writer.setInt(2, (Integer) row[0]);
+                    writer.addBatch();
+                }
+                writer.executeBatch();
+                lastId = (Integer) rows.getLast()[0];
+            }
+        }
+    }
+}
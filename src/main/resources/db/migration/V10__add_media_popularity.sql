@@ -0,0 +1 @@
+ALTER TABLE espacogeekdb.medias ADD COLUMN `popularity` double DEFAULT NULL;
@@ -0,0 +1,3 @@
+-- keyset pagination seeks on (name_media, id_media), InnoDB appends the primary key to secondary indexes
+ALTER TABLE espacogeekdb.medias ADD INDEX `idx_medias_category_name` (`id_category`, `name_media`);
+ALTER TABLE espacogeekdb.medias ADD INDEX `idx_medias_name` (`name_media`);
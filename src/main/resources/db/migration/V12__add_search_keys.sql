@@ -0,0 +1,8 @@
+-- normalized titles (accents removed, lower case, punctuation collapsed) filled by the application on every save,
+-- prefix searches seek the B-tree indexes, InnoDB appends the primary key so they cover the id lookups
+ALTER TABLE espacogeekdb.medias ADD COLUMN `search_key` varchar(255) DEFAULT NULL;
+ALTER TABLE espacogeekdb.medias ADD INDEX `idx_medias_search_key` (`search_key`);
+ALTER TABLE espacogeekdb.medias ADD INDEX `idx_medias_category_search_key` (`id_category`, `search_key`);
+
+ALTER TABLE espacogeekdb.alternative_titles ADD COLUMN `search_key` varchar(255) DEFAULT NULL;
+ALTER TABLE espacogeekdb.alternative_titles ADD INDEX `idx_alternative_titles_search_key` (`search_key`, `id_media`);
@@ -0,0 +1 @@
+ALTER TABLE espacogeekdb.api_keys ADD COLUMN expires_at datetime(6) DEFAULT NULL;
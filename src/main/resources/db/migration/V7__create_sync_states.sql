@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS espacogeekdb.sync_states (
+  `name_sync` varchar(100) NOT NULL,
+  `last_sync` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`name_sync`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
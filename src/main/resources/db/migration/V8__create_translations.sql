@@ -0,0 +1,22 @@
+CREATE TABLE IF NOT EXISTS espacogeekdb.media_translations (
+  `id_media_translation` int NOT NULL AUTO_INCREMENT,
+  `id_media` int NOT NULL,
+  `locale` varchar(10) NOT NULL,
+  `name_translation` varchar(255) DEFAULT NULL,
+  `about_translation` text,
+  `update_at` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`id_media_translation`),
+  UNIQUE KEY `uk_media_translation_locale` (`id_media`, `locale`),
+  CONSTRAINT `fk_media_translation_media` FOREIGN KEY (`id_media`) REFERENCES `medias` (`id_media`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS espacogeekdb.season_translations (
+  `id_season_translation` int NOT NULL AUTO_INCREMENT,
+  `id_season` int NOT NULL,
+  `locale` varchar(10) NOT NULL,
+  `name_translation` varchar(255) DEFAULT NULL,
+  `about_translation` varchar(10000) DEFAULT NULL,
+  PRIMARY KEY (`id_season_translation`),
+  UNIQUE KEY `uk_season_translation_locale` (`id_season`, `locale`),
+  CONSTRAINT `fk_season_translation_season` FOREIGN KEY (`id_season`) REFERENCES `seasons` (`id_season`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
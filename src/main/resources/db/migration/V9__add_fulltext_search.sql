@@ -0,0 +1,7 @@
+-- ngram tokens that contain a stopword are dropped from the index, disable them so titles like "A Team" are found
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+ALTER TABLE espacogeekdb.medias ADD FULLTEXT INDEX `ft_medias_name` (`name_media`) WITH PARSER ngram;
+ALTER TABLE espacogeekdb.alternative_titles ADD FULLTEXT INDEX `ft_alternative_titles_name` (`name_title`) WITH PARSER ngram;
+
+SET SESSION innodb_ft_enable_stopword = ON;
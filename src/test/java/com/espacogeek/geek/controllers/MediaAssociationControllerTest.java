@@ -0,0 +1,52 @@
+package com.espacogeek.geek.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.espacogeek.geek.models.MediaModel;
+
+/**
+ * Checks the associations of the medias are read with one query each for the whole list, see
+ * {@link MediaAssociationController}.
+ */
+class MediaAssociationControllerTest extends StatementCountTest {
+    // the medias with their category, then one query per list association
+    private static final long MAX_STATEMENTS = 5;
+
+    private static final String MEDIAS_QUERY = """
+            query medias($ids: [ID!]!) {
+                medias(ids: $ids) {
+                    id
+                    name
+                    mediaCategory { id typeCategory }
+                    genre { id name }
+                    alternativeTitles { id name }
+                    externalReference { id reference }
+                    season { id name seasonNumber }
+                }
+            }
+            """;
+
+    @Test
+    void associationsOfManyMediasCostTheStatementsOfOne() {
+        var one = countStatements(() -> queryMedias(medias.subList(0, 1)));
+        var many = countStatements(() -> queryMedias(medias));
+
+        assertThat(many).isEqualTo(one);
+        assertThat(many).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private void queryMedias(List<MediaModel> page) {
+        var ids = page.stream().map(MediaModel::getId).toList();
+
+        graphQlTester.document(MEDIAS_QUERY)
+                .variable("ids", ids)
+                .execute()
+                .path("medias[*].genre[0].name").entityList(String.class).hasSize(page.size())
+                .path("medias[*].alternativeTitles[0].name").entityList(String.class).hasSize(page.size())
+                .path("medias[*].season[0].seasonNumber").entityList(Integer.class).hasSize(page.size());
+    }
+}
@@ -0,0 +1,69 @@
+package com.espacogeek.geek.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.espacogeek.geek.services.FederatedSearchService;
+
+/**
+ * Checks the series search reads a page of N medias with the statements of a page of one: the search,
+ * the columns requested and one query per association requested.
+ */
+class MediaControllerSearchTest extends StatementCountTest {
+    // the search, then one query per association selected: category, genres, alternative titles and seasons
+    private static final long MAX_STATEMENTS = 5;
+
+    private static final String TVSERIE_QUERY = """
+            query tvserie($name: String, $size: Int) {
+                tvserie(name: $name, size: $size) {
+                    content {
+                        id
+                        name
+                        about
+                        mediaCategory { id }
+                        genre { id name }
+                        alternativeTitles { id name }
+                        season { id seasonNumber }
+                    }
+                }
+            }
+            """;
+
+    // TMDB is not searched, only the database
+    @MockBean
+    private FederatedSearchService federatedSearchService;
+
+    @BeforeEach
+    void searchOnlyTheDatabase() {
+        when(federatedSearchService.search(anyString(), anyInt(), any()))
+                .thenAnswer((invocation) -> invocation.getArgument(2, Supplier.class).get());
+    }
+
+    @Test
+    void pageOfManyMediasCostsTheStatementsOfOne() {
+        var one = countStatements(() -> searchSeries(1));
+        var many = countStatements(() -> searchSeries(MEDIAS));
+
+        assertThat(many).isEqualTo(one);
+        assertThat(many).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private void searchSeries(int size) {
+        graphQlTester.document(TVSERIE_QUERY)
+                .variable("name", name)
+                .variable("size", size)
+                .execute()
+                .path("tvserie.content[*].genre[0].name").entityList(String.class).hasSize(size)
+                .path("tvserie.content[*].alternativeTitles[0].name").entityList(String.class).hasSize(size)
+                .path("tvserie.content[*].season[0].seasonNumber").entityList(Integer.class).hasSize(size);
+    }
+}
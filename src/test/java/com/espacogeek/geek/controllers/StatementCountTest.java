@@ -0,0 +1,148 @@
+package com.espacogeek.geek.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.models.AlternativeTitleModel;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SeasonModel;
+import com.espacogeek.geek.repositories.AlternativeTitlesRepository;
+import com.espacogeek.geek.repositories.GenreRepository;
+import com.espacogeek.geek.repositories.MediaCategoryRepository;
+import com.espacogeek.geek.repositories.MediaRepository;
+import com.espacogeek.geek.repositories.SeasonRepository;
+import com.espacogeek.geek.services.MediaFacetService;
+import com.espacogeek.geek.services.MediaIndexService;
+import com.espacogeek.geek.services.MediaSuggestService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Base of the tests counting the statements prepared by Hibernate to answer a query, so a page of N
+ * medias can be checked to cost the same statements as a page of one, and no more than a fixed bound.
+ * <p>
+ * The statistics count the statements of the whole application, so nothing else may read the database
+ * while a query is counted: the test profile turns off the scheduled jobs and the index, suggestion and
+ * facet services, which scan the catalog on startup, are mocked.
+ * <p>
+ * The tests run against the test database of <code>application-test.properties</code>, only with
+ * <code>-Pdatabase-tests</code>. The medias they read are created before each test with a unique name and
+ * deleted after it.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Tag("database")
+abstract class StatementCountTest {
+    protected static final int MEDIAS = 5;
+
+    @MockBean
+    private MediaIndexService mediaIndexService;
+
+    @MockBean
+    private MediaSuggestService mediaSuggestService;
+
+    @MockBean
+    private MediaFacetService mediaFacetService;
+
+    @Autowired
+    protected GraphQlTester graphQlTester;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SuppressWarnings("rawtypes")
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private MediaCategoryRepository mediaCategoryRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private AlternativeTitlesRepository alternativeTitlesRepository;
+
+    @Autowired
+    private SeasonRepository seasonRepository;
+
+    // unique per test so neither the search caches nor the rows of another run are matched
+    protected String name;
+    protected List<MediaModel> medias;
+    private GenreModel genre;
+    private List<AlternativeTitleModel> alternativeTitles;
+    private List<SeasonModel> seasons;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void createMedias() {
+        name = "statement count " + UUID.randomUUID().toString().substring(0, 8);
+        genre = genreRepository.save(new GenreModel(null, name, null));
+
+        var category = mediaCategoryRepository.findById(MediaDataController.SERIE_ID).get();
+        medias = new ArrayList<>();
+        alternativeTitles = new ArrayList<>();
+        seasons = new ArrayList<>();
+        for (int i = 0; i < MEDIAS; i++) {
+            var media = new MediaModel();
+            media.setName(name + " " + i);
+            media.setMediaCategory(category);
+            media.setGenre(List.of(genre));
+            media.setPopularity((double) MEDIAS - i);
+            media = (MediaModel) mediaRepository.save(media);
+
+            alternativeTitles.add(alternativeTitlesRepository.save(new AlternativeTitleModel(null, name + " alternative " + i, media, null)));
+
+            var season = new SeasonModel();
+            season.setName("Season 1");
+            season.setSeasonNumber(1);
+            season.setMedia(media);
+            seasons.add(seasonRepository.save(season));
+
+            medias.add(media);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @AfterEach
+    void deleteMedias() {
+        seasonRepository.deleteAll(seasons);
+        alternativeTitlesRepository.deleteAll(alternativeTitles);
+        for (var media : medias) {
+            media.setGenre(List.of());
+            mediaRepository.save(media);
+            mediaRepository.deleteById(media.getId());
+        }
+        genreRepository.delete(genre);
+    }
+
+    /**
+     * Runs the query and returns how many statements Hibernate prepared to answer it.
+     */
+    protected long countStatements(Runnable query) {
+        var statistics = statistics();
+        statistics.clear();
+        query.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
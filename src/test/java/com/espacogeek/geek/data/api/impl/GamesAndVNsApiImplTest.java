@@ -0,0 +1,60 @@
+package com.espacogeek.geek.data.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.models.MediaCategoryModel;
+import com.espacogeek.geek.models.TypeReferenceModel;
+
+import proto.Game;
+import proto.Genre;
+import proto.Search;
+
+/**
+ * Checks the IGDB search results are saved in the category of their genres.
+ */
+class GamesAndVNsApiImplTest {
+    private static final long VN_GENRE = 34;
+    private static final long ADVENTURE_GENRE = 31;
+
+    private GamesAndVNsApiImpl api;
+
+    @BeforeEach
+    void createApi() {
+        api = new GamesAndVNsApiImpl();
+        ReflectionTestUtils.setField(api, "typeReference", new TypeReferenceModel(MediaDataController.IGDB_ID, "IGDB", null));
+        ReflectionTestUtils.setField(api, "category", new MediaCategoryModel(MediaDataController.GAME_ID, "Game", null));
+        ReflectionTestUtils.setField(api, "vnCategory", new MediaCategoryModel(MediaDataController.VN_ID, "Visual Novel", null));
+    }
+
+    @Test
+    void visualNovelFoundIsSavedAsVisualNovel() {
+        var medias = api.formatSearch(List.of(result(1, "Steins;Gate", ADVENTURE_GENRE, VN_GENRE)));
+
+        assertThat(medias).singleElement()
+                .satisfies((media) -> assertThat(media.getMediaCategory().getId()).isEqualTo(MediaDataController.VN_ID));
+    }
+
+    @Test
+    void gameFoundIsSavedAsGame() {
+        var medias = api.formatSearch(List.of(result(2, "Outer Wilds", ADVENTURE_GENRE)));
+
+        assertThat(medias).singleElement()
+                .satisfies((media) -> assertThat(media.getMediaCategory().getId()).isEqualTo(MediaDataController.GAME_ID));
+    }
+
+    private static Search result(long id, String name, long... genres) {
+        var game = Game.newBuilder().setId(id).setName(name);
+        for (long genre : genres) {
+            game.addGenres(Genre.newBuilder().setId(genre));
+        }
+
+        return Search.newBuilder().setGame(game).build();
+    }
+}
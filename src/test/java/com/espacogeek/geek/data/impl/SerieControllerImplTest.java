@@ -0,0 +1,208 @@
+package com.espacogeek.geek.data.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.data.api.impl.TvSeriesApiImpl;
+import com.espacogeek.geek.models.ExternalReferenceModel;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.models.SyncStateModel;
+import com.espacogeek.geek.models.TypeReferenceModel;
+import com.espacogeek.geek.services.ExternalReferenceService;
+import com.espacogeek.geek.services.MediaService;
+import com.espacogeek.geek.services.SyncStateService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Checks the sync of the TMDB TV changes against a stub server, reached through <code>tmdb.api.url</code>:
+ * the change list is read page by page, the window is clamped to the 14 days TMDB keeps and the watermark
+ * only moves when the sync succeeds.
+ */
+class SerieControllerImplTest {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+    private static final int TOTAL_PAGES = 3;
+
+    private HttpServer server;
+    private final List<Map<String, String>> requests = new CopyOnWriteArrayList<>();
+    // page answered with an error, none when 0
+    private volatile int failingPage;
+
+    private SerieControllerImpl controller;
+    private SyncStateService syncStateService;
+    private ExternalReferenceService externalReferenceService;
+    private MediaService mediaService;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/tv/changes", this::answerChanges);
+        server.start();
+
+        var tvSeriesApi = new TvSeriesApiImpl();
+        ReflectionTestUtils.setField(tvSeriesApi, "tmdbApiUrl", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(tvSeriesApi, "apiKey", "test");
+
+        syncStateService = mock(SyncStateService.class);
+        externalReferenceService = mock(ExternalReferenceService.class);
+        mediaService = mock(MediaService.class);
+        when(externalReferenceService.findAllByReferencesAndType(anyCollection(), any())).thenAnswer((invocation) -> {
+            Collection<String> references = invocation.getArgument(0);
+            return references.stream().map((reference) -> reference(reference, invocation.getArgument(1))).toList();
+        });
+
+        controller = new SerieControllerImpl();
+        ReflectionTestUtils.setField(controller, "tvSeriesApi", tvSeriesApi);
+        ReflectionTestUtils.setField(controller, "syncStateService", syncStateService);
+        ReflectionTestUtils.setField(controller, "externalReferenceService", externalReferenceService);
+        ReflectionTestUtils.setField(controller, "mediaService", mediaService);
+        ReflectionTestUtils.setField(controller, "typeReference", new TypeReferenceModel(MediaDataController.TMDB_ID, "TMDB", null));
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void everyPageOfChangesIsQueued() {
+        watermark(Instant.now().minus(Duration.ofDays(2)));
+
+        sync();
+
+        assertThat(requests).extracting((request) -> request.get("page")).containsExactly("1", "2", "3");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Integer>> stale = ArgumentCaptor.forClass(Collection.class);
+        verify(mediaService).markStale(stale.capture());
+        // the serie changed on two pages is queued once
+        assertThat(stale.getValue()).containsExactlyInAnyOrder(110, 120, 210, 220, 310, 320);
+    }
+
+    @Test
+    void watermarkOlderThanTheTmdbWindowIsClamped() {
+        var before = Instant.now();
+        watermark(before.minus(Duration.ofDays(30)));
+
+        sync();
+        var after = Instant.now();
+
+        var windowStart = List.of(DATE.format(before.minus(Duration.ofDays(14))), DATE.format(after.minus(Duration.ofDays(14))));
+        assertThat(requests).allSatisfy((request) -> assertThat(request.get("start_date")).isIn(windowStart));
+    }
+
+    @Test
+    void recentWatermarkIsNotClamped() {
+        var lastSync = Instant.now().minus(Duration.ofDays(2));
+        watermark(lastSync);
+
+        sync();
+
+        assertThat(requests).allSatisfy((request) -> assertThat(request.get("start_date")).isEqualTo(DATE.format(lastSync)));
+    }
+
+    @Test
+    void watermarkAdvancesWhenTheSyncSucceeds() {
+        watermark(Instant.now().minus(Duration.ofDays(2)));
+        var before = Instant.now();
+
+        sync();
+
+        var saved = ArgumentCaptor.forClass(SyncStateModel.class);
+        verify(syncStateService).save(saved.capture());
+        assertThat(saved.getValue().getLastSync().toInstant()).isBetween(before, Instant.now());
+    }
+
+    @Test
+    void watermarkStaysWhenThePagingFails() {
+        watermark(Instant.now().minus(Duration.ofDays(2)));
+        failingPage = 2;
+
+        sync();
+
+        verify(syncStateService, never()).save(any());
+        verify(mediaService, never()).markStale(anyCollection());
+    }
+
+    private void sync() {
+        ReflectionTestUtils.invokeMethod(controller, "syncTvSeriesChanges");
+    }
+
+    private void watermark(Instant lastSync) {
+        when(syncStateService.findByName(anyString()))
+                .thenReturn(Optional.of(new SyncStateModel(SerieControllerImpl.TMDB_CHANGES_SYNC, Date.from(lastSync))));
+    }
+
+    /**
+     * Answers the page asked with two series, <code>page * 100 + 10</code> and <code>page * 100 + 20</code>,
+     * and the first serie of the previous page again.
+     */
+    private void answerChanges(HttpExchange exchange) throws IOException {
+        var query = query(exchange.getRequestURI().getRawQuery());
+        requests.add(query);
+        var page = Integer.parseInt(query.get("page"));
+
+        if (page == failingPage) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+
+        List<String> results = new ArrayList<>();
+        results.add("{\"id\": " + (page * 100 + 10) + ", \"adult\": false}");
+        results.add("{\"id\": " + (page * 100 + 20) + ", \"adult\": false}");
+        if (page > 1) results.add("{\"id\": " + ((page - 1) * 100 + 10) + ", \"adult\": false}");
+
+        var body = ("{\"results\": [" + String.join(", ", results) + "], \"page\": " + page
+                + ", \"total_pages\": " + TOTAL_PAGES + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (var response = exchange.getResponseBody()) {
+            response.write(body);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        var query = new HashMap<String, String>();
+        for (String parameter : rawQuery.split("&")) {
+            var pair = parameter.split("=", 2);
+            query.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        return query;
+    }
+
+    // the saved serie of a TMDB id has the same id, to read the queued series easily
+    private static ExternalReferenceModel reference(String reference, TypeReferenceModel typeReference) {
+        var media = new MediaModel();
+        media.setId(Integer.valueOf(reference));
+        return new ExternalReferenceModel(null, reference, media, typeReference);
+    }
+}
@@ -0,0 +1,96 @@
+package com.espacogeek.geek.repositories.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.repositories.MediaCategoryRepository;
+import com.espacogeek.geek.repositories.MediaRepository;
+
+/**
+ * Checks the grouped search keeps the best matches of each category up to the limit, with one query for
+ * every category.
+ * <p>
+ * The tests run against the test database of <code>application-test.properties</code>, only with
+ * <code>-Pdatabase-tests</code>. The medias are created before each test with a unique name, and committed
+ * so the full-text index sees them, then deleted after it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("database")
+class MediaRepositoryCustomImplTest {
+    private static final int SERIES = 4;
+    private static final int GAMES = 2;
+    private static final List<Integer> CATEGORIES = List.of(MediaDataController.SERIE_ID, MediaDataController.GAME_ID, MediaDataController.MOVIE_ID);
+
+    @SuppressWarnings("rawtypes")
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private MediaCategoryRepository mediaCategoryRepository;
+
+    private String name;
+    private List<MediaModel> medias;
+
+    @BeforeEach
+    void createMedias() {
+        name = "grouped " + UUID.randomUUID().toString().substring(0, 8);
+        medias = new ArrayList<>();
+        for (int i = 0; i < SERIES; i++) medias.add(save(MediaDataController.SERIE_ID, i));
+        for (int i = 0; i < GAMES; i++) medias.add(save(MediaDataController.GAME_ID, i));
+    }
+
+    @SuppressWarnings("unchecked")
+    @AfterEach
+    void deleteMedias() {
+        mediaRepository.deleteAll(medias);
+    }
+
+    @Test
+    void eachCategoryKeepsItsOwnLimit() {
+        var groups = mediaRepository.findMediaByNameGroupedByCategory(name, CATEGORIES, 3, null);
+
+        assertThat(groups.get(MediaDataController.SERIE_ID)).hasSize(3);
+        assertThat(groups.get(MediaDataController.GAME_ID)).hasSize(GAMES);
+        assertThat(groups).doesNotContainKey(MediaDataController.MOVIE_ID);
+    }
+
+    @Test
+    void bestMatchesOfACategoryComeFirst() {
+        var groups = mediaRepository.findMediaByNameGroupedByCategory(name, CATEGORIES, 2, null);
+
+        // same relevance for every name, so the most popular first
+        assertThat(groups.get(MediaDataController.SERIE_ID)).extracting(MediaModel::getName)
+                .containsExactly(name + " serie 0", name + " serie 1");
+    }
+
+    @Test
+    void onlyTheCategoriesAskedAreSearched() {
+        var groups = mediaRepository.findMediaByNameGroupedByCategory(name, List.of(MediaDataController.GAME_ID), 10, null);
+
+        assertThat(groups).containsOnlyKeys(MediaDataController.GAME_ID);
+        assertThat(groups.get(MediaDataController.GAME_ID)).hasSize(GAMES);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MediaModel save(int category, int position) {
+        var media = new MediaModel();
+        media.setName(name + (category == MediaDataController.SERIE_ID ? " serie " : " game ") + position);
+        media.setMediaCategory(mediaCategoryRepository.findById(category).get());
+        media.setPopularity(100.0 - position);
+        return (MediaModel) mediaRepository.save(media);
+    }
+}
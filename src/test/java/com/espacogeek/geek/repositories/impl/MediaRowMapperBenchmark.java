@@ -0,0 +1,152 @@
+package com.espacogeek.geek.repositories.impl;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.espacogeek.geek.models.MediaModel;
+
+/**
+ * JMH benchmark comparing the generated {@link MediaRowMapper} with the reflective mapping the rows had
+ * before, on {@link #ROWS} rows of a projected search.
+ * <p>
+ * The columns are built from the fields of {@link MediaModel}, without the Spring context. Run it from
+ * {@link #main(String[])} once the test classes are compiled, <code>mvn test-compile</code>; it isn't a
+ * test so <code>mvn test</code> never runs it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MediaRowMapperBenchmark {
+    private static final int ROWS = 10_000;
+    private static final List<String> FIELDS = List.of("id", "name", "totalEpisodes", "episodeLength", "about", "cover", "banner", "popularity");
+
+    private List<Object[]> rows;
+    private MediaRowMapper generated;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MediaRowMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws Throwable {
+        List<MediaMetamodel.ScalarColumn> columns = new ArrayList<>();
+        for (String field : FIELDS) {
+            columns.add(MediaMetamodel.scalarColumn(MediaModel.class.getDeclaredField(field)));
+        }
+        generated = MediaRowMapper.of(columns);
+        rows = rows();
+    }
+
+    @Benchmark
+    public void generated(Blackhole blackhole) {
+        for (Object[] row : rows) {
+            blackhole.consume(generated.map(row));
+        }
+    }
+
+    @Benchmark
+    public void reflective(Blackhole blackhole) {
+        for (Object[] row : rows) {
+            blackhole.consume(mapRowToEntity(MediaModel.class, FIELDS, row));
+        }
+    }
+
+    /**
+     * The rows as returned by MySQL, with the JDBC types of the columns.
+     */
+    private static List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{ i, "Media " + i, (long) i % 100, i % 60, "About " + i, "cover" + i, null, i / 3.0 });
+        }
+        return rows;
+    }
+
+    // the reflective mapping as it was, looking up every field and converting every value on each row
+
+    private static Field getField(Class<?> type, String fieldName) {
+        Class<?> t = type;
+        while (t != null && t != Object.class) {
+            try {
+                Field f = t.getDeclaredField(fieldName);
+                f.setAccessible(true);
+                return f;
+            } catch (NoSuchFieldException ignored) {
+            }
+            t = t.getSuperclass();
+        }
+        return null;
+    }
+
+    private static MediaModel mapRowToEntity(Class<MediaModel> entityClass, List<String> fields, Object[] values) {
+        try {
+            MediaModel instance = entityClass.getDeclaredConstructor().newInstance();
+            for (int i = 0; i < fields.size(); i++) {
+                String fname = fields.get(i);
+                Object val = (i < values.length) ? values[i] : null;
+                Field f = getField(entityClass, fname);
+                if (f == null) continue;
+                Object converted = convertValue(val, f.getType());
+                try {
+                    f.setAccessible(true);
+                    f.set(instance, converted);
+                } catch (IllegalAccessException ignored) {
+                }
+            }
+            return instance;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Object convertValue(Object val, Class<?> targetType) {
+        if (val == null) return null;
+        if (targetType.isInstance(val)) return val;
+
+        if (targetType == Integer.class || targetType == int.class) {
+            if (val instanceof Number n) return n.intValue();
+            if (val instanceof String s) return Integer.parseInt(s);
+        }
+        if (targetType == Long.class || targetType == long.class) {
+            if (val instanceof Number n) return n.longValue();
+            if (val instanceof String s) return Long.parseLong(s);
+        }
+        if (targetType == Double.class || targetType == double.class) {
+            if (val instanceof Number n) return n.doubleValue();
+            if (val instanceof String s) return Double.parseDouble(s);
+        }
+        if (targetType == Float.class || targetType == float.class) {
+            if (val instanceof Number n) return n.floatValue();
+            if (val instanceof String s) return Float.parseFloat(s);
+        }
+        if (targetType == BigInteger.class && val instanceof Number n) return BigInteger.valueOf(n.longValue());
+        if (targetType == BigDecimal.class && val instanceof Number n) return BigDecimal.valueOf(n.doubleValue());
+        if (CharSequence.class.isAssignableFrom(targetType)) return String.valueOf(val);
+        if (Temporal.class.isAssignableFrom(targetType)) return val;
+
+        return null;
+    }
+}
@@ -0,0 +1,168 @@
+package com.espacogeek.geek.services.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.models.GenreModel;
+import com.espacogeek.geek.models.MediaCategoryModel;
+import com.espacogeek.geek.repositories.GenreRepository;
+import com.espacogeek.geek.repositories.MediaCategoryRepository;
+import com.espacogeek.geek.repositories.MediaRepository;
+import com.espacogeek.geek.types.FacetCount;
+import com.espacogeek.geek.types.MediaFilter;
+
+/**
+ * Checks the filters intersect the bitmaps of the facets and the counts of each facet apply the filters
+ * of the others only, on a small catalog read by {@link MediaFacetServiceImpl#rebuild()}.
+ */
+class MediaFacetServiceImplTest {
+    private static final int DRAMA = 10;
+    private static final int COMEDY = 20;
+
+    // [id, category id, genre ids, year of the first air date]
+    private final List<Object[]> catalog = new ArrayList<>(List.of(
+            new Object[]{ 1, MediaDataController.SERIE_ID, List.of(DRAMA, COMEDY), 2010 },
+            new Object[]{ 2, MediaDataController.SERIE_ID, List.of(COMEDY), 2015 },
+            new Object[]{ 3, MediaDataController.GAME_ID, List.of(DRAMA), 2010 },
+            new Object[]{ 4, MediaDataController.GAME_ID, List.of(), null },
+            new Object[]{ 5, MediaDataController.MOVIE_ID, List.of(COMEDY), 2015 }));
+
+    private MediaFacetServiceImpl facets;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void buildFacets() {
+        var mediaRepository = mock(MediaRepository.class);
+        when(mediaRepository.findSuggestionRowsAfter(anyInt(), any())).thenAnswer((invocation) -> {
+            int lastId = invocation.getArgument(0);
+            return suggestionRows(catalog.stream().filter((media) -> (int) media[0] > lastId).toList());
+        });
+        when(mediaRepository.findSuggestionRowsByIdIn(anyCollection())).thenAnswer((invocation) -> suggestionRows(medias(invocation.getArgument(0))));
+        when(mediaRepository.findGenreRowsByIdIn(anyCollection())).thenAnswer((invocation) -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] media : medias(invocation.getArgument(0))) {
+                for (Integer genre : (List<Integer>) media[2]) rows.add(new Object[]{ media[0], genre });
+            }
+            return rows;
+        });
+        when(mediaRepository.findFirstAirDateRowsByIdIn(anyCollection())).thenAnswer((invocation) -> medias(invocation.getArgument(0)).stream()
+                .filter((media) -> media[3] != null)
+                .map((media) -> new Object[]{ media[0], Date.from(LocalDate.of((int) media[3], 6, 1).atStartOfDay().toInstant(ZoneOffset.UTC)) })
+                .toList());
+
+        var genreRepository = mock(GenreRepository.class);
+        when(genreRepository.findAll()).thenReturn(List.of(new GenreModel(DRAMA, "Drama", null), new GenreModel(COMEDY, "Comedy", null)));
+
+        var mediaCategoryRepository = mock(MediaCategoryRepository.class);
+        when(mediaCategoryRepository.findAll()).thenReturn(List.of(
+                new MediaCategoryModel(MediaDataController.SERIE_ID, "Serie", null),
+                new MediaCategoryModel(MediaDataController.GAME_ID, "Game", null),
+                new MediaCategoryModel(MediaDataController.MOVIE_ID, "Movie", null)));
+
+        facets = new MediaFacetServiceImpl();
+        ReflectionTestUtils.setField(facets, "mediaRepository", mediaRepository);
+        ReflectionTestUtils.setField(facets, "genreRepository", genreRepository);
+        ReflectionTestUtils.setField(facets, "mediaCategoryRepository", mediaCategoryRepository);
+        facets.rebuild();
+    }
+
+    @Test
+    void noFilterFindsEveryMedia() {
+        assertThat(facets.findIds(new MediaFilter(), 0, 10)).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void valuesOfAFacetAreUnitedAndFacetsAreIntersected() {
+        var filter = filter(List.of(MediaDataController.SERIE_ID, MediaDataController.GAME_ID), List.of(DRAMA), null);
+
+        assertThat(facets.findIds(filter, 0, 10)).containsExactly(1, 3);
+    }
+
+    @Test
+    void everyFacetFilters() {
+        var filter = filter(List.of(MediaDataController.SERIE_ID), List.of(COMEDY), List.of(2015));
+
+        assertThat(facets.findIds(filter, 0, 10)).containsExactly(2);
+    }
+
+    @Test
+    void unknownValueMatchesNothing() {
+        assertThat(facets.findIds(filter(null, List.of(99), null), 0, 10)).isEmpty();
+    }
+
+    @Test
+    void idsArePagedAfterTheLastIdRead() {
+        assertThat(facets.findIds(new MediaFilter(), 2, 2)).containsExactly(3, 4);
+    }
+
+    @Test
+    void eachFacetIsCountedWithTheFiltersOfTheOthers() {
+        var counts = facets.count(filter(null, List.of(COMEDY), null));
+
+        // the comedies by category and year, every genre since the genre filter is its own
+        assertThat(counts.getCategory()).extracting(FacetCount::getValue, FacetCount::getName, FacetCount::getCount)
+                .containsExactly(tuple(MediaDataController.SERIE_ID, "Serie", 2), tuple(MediaDataController.MOVIE_ID, "Movie", 1));
+        assertThat(counts.getGenre()).extracting(FacetCount::getValue, FacetCount::getName, FacetCount::getCount)
+                .containsExactly(tuple(COMEDY, "Comedy", 3), tuple(DRAMA, "Drama", 2));
+        assertThat(counts.getYear()).extracting(FacetCount::getValue, FacetCount::getCount)
+                .containsExactly(tuple(2015, 2), tuple(2010, 1));
+    }
+
+    @Test
+    void removedMediaIsClearedFromEveryFacet() {
+        catalog.removeIf((media) -> (int) media[0] == 5);
+
+        facets.refresh(List.of(5));
+        ReflectionTestUtils.invokeMethod(facets, "flushPending");
+
+        assertThat(facets.findIds(new MediaFilter(), 0, 10)).containsExactly(1, 2, 3, 4);
+        var counts = facets.count(new MediaFilter());
+        assertThat(counts.getCategory()).extracting(FacetCount::getValue).doesNotContain(MediaDataController.MOVIE_ID);
+        assertThat(counts.getGenre()).extracting(FacetCount::getValue, FacetCount::getCount).contains(tuple(COMEDY, 2));
+        assertThat(counts.getYear()).extracting(FacetCount::getValue, FacetCount::getCount).contains(tuple(2015, 1));
+    }
+
+    @Test
+    void changedMediaMovesBetweenValues() {
+        catalog.replaceAll((media) -> (int) media[0] == 4 ? new Object[]{ 4, MediaDataController.GAME_ID, List.of(COMEDY), 2010 } : media);
+
+        facets.refresh(List.of(4));
+        ReflectionTestUtils.invokeMethod(facets, "flushPending");
+
+        assertThat(facets.findIds(filter(null, List.of(COMEDY), List.of(2010)), 0, 10)).containsExactly(1, 4);
+    }
+
+    private List<Object[]> medias(Collection<Integer> ids) {
+        return catalog.stream().filter((media) -> ids.contains((Integer) media[0])).toList();
+    }
+
+    // rows of [id, name, category id, popularity]
+    private static List<Object[]> suggestionRows(List<Object[]> medias) {
+        return medias.stream().map((media) -> new Object[]{ media[0], "Media " + media[0], media[1], 1.0 }).toList();
+    }
+
+    private static MediaFilter filter(List<Integer> category, List<Integer> genre, List<Integer> year) {
+        var filter = new MediaFilter();
+        filter.setCategory(category);
+        filter.setGenre(genre);
+        filter.setYear(year);
+        return filter;
+    }
+}
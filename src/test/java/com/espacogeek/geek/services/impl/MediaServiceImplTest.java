@@ -0,0 +1,90 @@
+package com.espacogeek.geek.services.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.espacogeek.geek.data.MediaDataController;
+import com.espacogeek.geek.models.MediaModel;
+import com.espacogeek.geek.repositories.MediaRepository;
+import com.espacogeek.geek.types.SearchGroup;
+
+/**
+ * Checks the grouped search keeps the limit of each category and tells which ones have more matches.
+ */
+class MediaServiceImplTest {
+    private static final List<Integer> CATEGORIES = List.of(MediaDataController.SERIE_ID, MediaDataController.GAME_ID, MediaDataController.MOVIE_ID);
+
+    @SuppressWarnings("rawtypes")
+    private MediaRepository mediaRepository;
+    private MediaServiceImpl mediaService;
+
+    @BeforeEach
+    void createService() {
+        mediaRepository = mock(MediaRepository.class);
+        mediaService = new MediaServiceImpl();
+        ReflectionTestUtils.setField(mediaService, "mediaRepository", mediaRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void eachCategoryKeepsItsLimitAndTellsWhetherItHasMore() {
+        // the repository is asked one media more than the limit
+        when(mediaRepository.findMediaByNameGroupedByCategory("naruto", CATEGORIES, 3, null)).thenReturn(Map.of(
+                MediaDataController.SERIE_ID, medias(1, 3),
+                MediaDataController.GAME_ID, medias(10, 2)));
+
+        var groups = mediaService.searchByCategories("naruto", CATEGORIES, 2, null);
+
+        assertThat(groups).extracting(SearchGroup::getCategory).containsExactlyElementsOf(CATEGORIES);
+        assertThat(groups.get(0).getContent()).extracting(MediaModel::getId).containsExactly(1, 2);
+        assertThat(groups.get(0).isHasMore()).isTrue();
+        assertThat(groups.get(1).getContent()).extracting(MediaModel::getId).containsExactly(10, 11);
+        assertThat(groups.get(1).isHasMore()).isFalse();
+        // a category without matches is still returned, empty
+        assertThat(groups.get(2).getContent()).isEmpty();
+        assertThat(groups.get(2).isHasMore()).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void missingLimitUsesTheDefaultPageSize() {
+        when(mediaRepository.findMediaByNameGroupedByCategory(anyString(), anyList(), anyInt(), isNull())).thenReturn(Map.of());
+
+        mediaService.searchByCategories("naruto", CATEGORIES, null, null);
+
+        verify(mediaRepository).findMediaByNameGroupedByCategory(eq("naruto"), eq(CATEGORIES), eq(11), isNull());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void limitIsCappedToTheMaxPageSize() {
+        when(mediaRepository.findMediaByNameGroupedByCategory(anyString(), anyList(), anyInt(), isNull())).thenReturn(Map.of());
+
+        mediaService.searchByCategories("naruto", CATEGORIES, 1000, null);
+
+        verify(mediaRepository).findMediaByNameGroupedByCategory(eq("naruto"), eq(CATEGORIES), eq(101), isNull());
+    }
+
+    private static List<MediaModel> medias(int firstId, int count) {
+        return IntStream.range(firstId, firstId + count).mapToObj((id) -> {
+            var media = new MediaModel();
+            media.setId(id);
+            return media;
+        }).toList();
+    }
+}